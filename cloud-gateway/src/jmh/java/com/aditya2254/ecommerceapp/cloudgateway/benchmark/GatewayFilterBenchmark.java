@@ -0,0 +1,99 @@
+package com.aditya2254.ecommerceapp.cloudgateway.benchmark;
+
+import com.aditya2254.ecommerceapp.cloudgateway.config.JwtVerificationProperties;
+import com.aditya2254.ecommerceapp.cloudgateway.dto.UserDTO;
+import com.aditya2254.ecommerceapp.cloudgateway.filter.AuthenticationFilter;
+import com.aditya2254.ecommerceapp.cloudgateway.filter.GlobalAuthFilter;
+import com.aditya2254.ecommerceapp.cloudgateway.service.TokenValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks for the per-request work the gateway does before proxying:
+ * the global and route authentication filters (with token validation stubbed out)
+ * and the request header mutation they perform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class GatewayFilterBenchmark {
+
+    private static final UserDTO USER = new UserDTO(42L, "bench-user", "bench@example.com", List.of("ROLE_USER"));
+
+    private static final GatewayFilterChain NO_OP_CHAIN = exchange -> Mono.empty();
+
+    private GlobalAuthFilter globalAuthFilter;
+    private GatewayFilter authenticationFilter;
+
+    @Setup
+    public void setUp() {
+        TokenValidationService tokenValidationService = new TokenValidationService(WebClient.builder(), null, new JwtVerificationProperties()) {
+            @Override
+            public Mono<UserDTO> validateToken(String token) {
+                return Mono.just(USER);
+            }
+        };
+        globalAuthFilter = new GlobalAuthFilter(tokenValidationService);
+        authenticationFilter = new AuthenticationFilter(tokenValidationService)
+                .apply(new AuthenticationFilter.Config());
+    }
+
+    private static ServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer bench-token"));
+    }
+
+    @Benchmark
+    public Object globalAuthFilterProtectedPath() {
+        return globalAuthFilter.filter(exchange("/api/orders"), NO_OP_CHAIN).block();
+    }
+
+    @Benchmark
+    public Object globalAuthFilterPublicPath() {
+        return globalAuthFilter.filter(exchange("/product-service/products"), NO_OP_CHAIN).block();
+    }
+
+    @Benchmark
+    public Object authenticationFilter() {
+        return authenticationFilter.filter(exchange("/api/products/1"), NO_OP_CHAIN).block();
+    }
+
+    @Benchmark
+    public ServerWebExchange headerMutation() {
+        ServerWebExchange exchange = exchange("/api/orders");
+        ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+                .header("X-User-ID", USER.getId().toString())
+                .header("X-User-Name", USER.getUsername())
+                .header("X-User-Roles", String.join(",", USER.getRoles()))
+                .build();
+        return exchange.mutate().request(modifiedRequest).build();
+    }
+
+    @Benchmark
+    public ServerWebExchange exchangeCreationBaseline() {
+        return exchange("/api/orders");
+    }
+}
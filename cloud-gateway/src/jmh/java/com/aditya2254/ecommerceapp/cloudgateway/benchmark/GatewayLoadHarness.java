@@ -0,0 +1,154 @@
+package com.aditya2254.ecommerceapp.cloudgateway.benchmark;
+
+import com.aditya2254.ecommerceapp.cloudgateway.CloudGatewayApplication;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Boots the real gateway against {@link StubUpstreams}, drives closed-loop load through it
+ * and prints requests per second, latency percentiles and bytes allocated per request.
+ *
+ * <p>Options (all optional): {@code --concurrency=64 --warmup=10 --duration=30
+ * --method=GET --path=/api/products/1 --token=bench-token}
+ */
+public class GatewayLoadHarness {
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        HttpMethod method = HttpMethod.valueOf(options.getOrDefault("method", "GET"));
+        String path = options.getOrDefault("path", "/api/products/1");
+        String token = options.getOrDefault("token", "bench-token");
+
+        try (StubUpstreams stubs = new StubUpstreams();
+             ConfigurableApplicationContext gateway = startGateway(stubs)) {
+
+            int port = ((ReactiveWebServerApplicationContext) gateway).getWebServer().getPort();
+            LoopResources clientLoops = LoopResources.create("load", 1, Math.max(2, concurrency / 16), true);
+            ConnectionProvider connections = ConnectionProvider.create("load", concurrency);
+            HttpClient client = HttpClient.create(connections)
+                    .runOn(clientLoops)
+                    .baseUrl("http://localhost:" + port)
+                    .headers(headers -> headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer " + token));
+
+            System.out.printf("Warming up for %ds against %s %s with %d connections%n",
+                    warmupSeconds, method, path, concurrency);
+            drive(client, method, path, concurrency, warmupSeconds, new LatencyHistogram(), new LongAdder());
+
+            Map<Long, Long> allocatedBefore = gatewayAllocatedBytes();
+            LatencyHistogram histogram = new LatencyHistogram();
+            LongAdder errors = new LongAdder();
+            long start = System.nanoTime();
+            drive(client, method, path, concurrency, durationSeconds, histogram, errors);
+            long elapsedNanos = System.nanoTime() - start;
+            long allocated = allocatedSince(allocatedBefore);
+
+            long requests = histogram.count();
+            System.out.println("---------------- gateway load results ----------------");
+            System.out.printf("requests          : %d (%d non-2xx)%n", requests, errors.sum());
+            System.out.printf("throughput        : %.1f req/s%n", requests / (elapsedNanos / 1e9));
+            System.out.printf("latency p50       : %.0f us%n", histogram.percentileMicros(50));
+            System.out.printf("latency p90       : %.0f us%n", histogram.percentileMicros(90));
+            System.out.printf("latency p99       : %.0f us%n", histogram.percentileMicros(99));
+            System.out.printf("latency p99.9     : %.0f us%n", histogram.percentileMicros(99.9));
+            System.out.printf("gateway alloc/req : %d bytes%n", requests == 0 ? 0 : allocated / requests);
+
+            connections.disposeLater().block();
+            clientLoops.disposeLater().block();
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(StubUpstreams stubs) {
+        return new SpringApplicationBuilder(CloudGatewayApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.config.import=",
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false",
+                        "spring.cloud.gateway.server.webflux.discovery.locator.enabled=false",
+                        "logging.level.root=warn",
+                        // The stub user-service has no JWKS and the bench token is opaque
+                        "gateway.jwt.local-verification=false",
+                        "spring.cloud.discovery.client.simple.instances[user-service][0].uri=" + stubs.userServiceUri(),
+                        "spring.cloud.discovery.client.simple.instances[USER-SERVICE][0].uri=" + stubs.userServiceUri(),
+                        "spring.cloud.discovery.client.simple.instances[PRODUCT-SERVICE][0].uri=" + stubs.productServiceUri(),
+                        "spring.cloud.discovery.client.simple.instances[product-service][0].uri=" + stubs.productServiceUri(),
+                        "spring.cloud.discovery.client.simple.instances[ORDER-SERVICE][0].uri=" + stubs.orderServiceUri())
+                .run();
+    }
+
+    private static void drive(HttpClient client, HttpMethod method, String path, int concurrency,
+                              int seconds, LatencyHistogram histogram, LongAdder errors) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        Flux.range(0, concurrency)
+                .flatMap(worker -> Mono.defer(() -> {
+                            long start = System.nanoTime();
+                            return client.request(method)
+                                    .uri(path)
+                                    .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                                    .doOnNext(status -> {
+                                        histogram.record(System.nanoTime() - start);
+                                        if (status < 200 || status >= 300) {
+                                            errors.increment();
+                                        }
+                                    });
+                        })
+                        .repeat(() -> System.nanoTime() < deadline), concurrency)
+                .blockLast();
+    }
+
+    /**
+     * Snapshot of allocated bytes per live thread, excluding the load generator and stub threads.
+     */
+    private static Map<Long, Long> gatewayAllocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> snapshot = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            String name = thread.getName();
+            if (name.startsWith("load") || name.startsWith("stub")) {
+                continue;
+            }
+            long bytes = threads.getThreadAllocatedBytes(thread.getId());
+            if (bytes >= 0) {
+                snapshot.put(thread.getId(), bytes);
+            }
+        }
+        return snapshot;
+    }
+
+    private static long allocatedSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : gatewayAllocatedBytes().entrySet()) {
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        }
+        return total;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
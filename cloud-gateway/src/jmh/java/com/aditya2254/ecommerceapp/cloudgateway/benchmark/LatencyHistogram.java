@@ -0,0 +1,49 @@
+package com.aditya2254.ecommerceapp.cloudgateway.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with fixed 10µs buckets up to one second; slower samples
+ * land in an overflow bucket. Recording does not allocate, so it does not disturb the
+ * allocation numbers reported by {@link GatewayLoadHarness}.
+ */
+class LatencyHistogram {
+
+    private static final long BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final int BUCKETS = 100_000;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 1);
+
+    void record(long nanos) {
+        int bucket = (int) Math.min(BUCKETS, nanos / BUCKET_NANOS);
+        counts.incrementAndGet(bucket);
+    }
+
+    long count() {
+        long total = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the upper bound of the bucket containing the given percentile, in microseconds.
+     */
+    double percentileMicros(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= threshold) {
+                return TimeUnit.NANOSECONDS.toMicros((i + 1) * BUCKET_NANOS);
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMicros((BUCKETS + 1) * BUCKET_NANOS);
+    }
+}
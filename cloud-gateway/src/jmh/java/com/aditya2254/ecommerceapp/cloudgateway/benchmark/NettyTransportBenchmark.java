@@ -0,0 +1,95 @@
+package com.aditya2254.ecommerceapp.cloudgateway.benchmark;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request throughput and latency of Reactor Netty over NIO and epoll, using
+ * the same loop/allocator wiring as {@code NettyTransportConfig}.
+ * Run with {@code -prof gc} to also compare allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(16)
+public class NettyTransportBenchmark {
+
+    @Param({"nio", "epoll"})
+    public String transport;
+
+    @Param({"1024"})
+    public int payloadBytes;
+
+    private LoopResources loopResources;
+    private ConnectionProvider connectionProvider;
+    private DisposableServer server;
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean preferNative = "epoll".equals(transport);
+        if (preferNative && !Epoll.isAvailable()) {
+            throw new IllegalStateException("epoll not available: " + Epoll.unavailabilityCause());
+        }
+        int workers = Math.max(2, Runtime.getRuntime().availableProcessors());
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, workers, workers, 8192, 9, 256, 64, false);
+        loopResources = LoopResources.create("bench-" + transport, 1, workers, true);
+        String payload = "x".repeat(payloadBytes);
+
+        server = HttpServer.create()
+                .port(0)
+                .runOn(loopResources, preferNative)
+                .childOption(ChannelOption.ALLOCATOR, allocator)
+                .route(routes -> routes.get("/ping", (request, response) -> response.sendString(Mono.just(payload))))
+                .bindNow();
+
+        connectionProvider = ConnectionProvider.create("bench-" + transport, 64);
+        client = HttpClient.create(connectionProvider)
+                .runOn(loopResources, preferNative)
+                .option(ChannelOption.ALLOCATOR, allocator)
+                .baseUrl("http://localhost:" + server.port());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.disposeNow();
+        connectionProvider.disposeLater().block();
+        loopResources.disposeLater().block();
+    }
+
+    @Benchmark
+    public String roundTrip() {
+        return client.get()
+                .uri("/ping")
+                .responseContent()
+                .aggregate()
+                .asString()
+                .block();
+    }
+}
@@ -0,0 +1,66 @@
+package com.aditya2254.ecommerceapp.cloudgateway.benchmark;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * In-process stand-ins for user-service, product-service and orders-service.
+ * They answer with fixed JSON bodies so that the gateway is the only thing being measured.
+ * The stubs run on their own "stub" event loops so their allocations can be told apart
+ * from the gateway's.
+ */
+public class StubUpstreams implements AutoCloseable {
+
+    static final String USER_JSON =
+            "{\"id\":42,\"username\":\"bench-user\",\"email\":\"bench@example.com\",\"roles\":[\"ROLE_USER\"]}";
+
+    static final String PRODUCT_JSON =
+            "{\"id\":1,\"name\":\"Bench product\",\"description\":\"Stub response\",\"price\":10.5,\"stock\":100,\"category\":\"bench\"}";
+
+    static final String ORDER_JSON =
+            "{\"orderId\":1,\"status\":\"success\",\"message\":\"Order created successfully\"}";
+
+    private final LoopResources loops = LoopResources.create("stub", 1, 2, true);
+    private final DisposableServer userService;
+    private final DisposableServer productService;
+    private final DisposableServer orderService;
+
+    public StubUpstreams() {
+        this.userService = start(USER_JSON);
+        this.productService = start(PRODUCT_JSON);
+        this.orderService = start(ORDER_JSON);
+    }
+
+    private DisposableServer start(String body) {
+        return HttpServer.create()
+                .port(0)
+                .runOn(loops)
+                .handle((request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just(body)))
+                .bindNow();
+    }
+
+    public String userServiceUri() {
+        return "http://localhost:" + userService.port();
+    }
+
+    public String productServiceUri() {
+        return "http://localhost:" + productService.port();
+    }
+
+    public String orderServiceUri() {
+        return "http://localhost:" + orderService.port();
+    }
+
+    @Override
+    public void close() {
+        userService.disposeNow();
+        productService.disposeNow();
+        orderService.disposeNow();
+        loops.disposeLater().block();
+    }
+}
@@ -0,0 +1,30 @@
+package com.aditya2254.ecommerceapp.cloudgateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for gzip compression of upstream responses at the gateway.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    // Responses smaller than this are passed through untouched
+    private int minResponseSize = 2048;
+
+    private List<String> mimeTypes = new ArrayList<>(List.of("application/json"));
+
+    // Largest body buffered for compression; larger responses are passed through uncompressed
+    private int maxBufferedSize = 8 * 1024 * 1024;
+
+    // Upper bound for the compressed variant cache, in bytes of compressed payload
+    private long variantCacheMaxBytes = 32L * 1024 * 1024;
+}
@@ -0,0 +1,27 @@
+package com.aditya2254.ecommerceapp.cloudgateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Settings for verifying access tokens at the gateway with the user-service key set.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.jwt")
+public class JwtVerificationProperties {
+
+    // Verify RS256 tokens locally; when false every token is checked by calling user-service
+    private boolean localVerification = true;
+
+    private String jwksUri = "lb://user-service/api/auth/jwks";
+
+    // Regular refresh of the key set, independent of unknown-kid refreshes
+    private Duration jwksRefreshInterval = Duration.ofMinutes(5);
+
+    // Unknown kids trigger a refresh at most this often, so junk tokens cannot hammer user-service
+    private Duration jwksMinRefreshInterval = Duration.ofSeconds(30);
+}
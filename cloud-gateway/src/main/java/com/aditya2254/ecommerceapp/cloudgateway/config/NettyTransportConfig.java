@@ -0,0 +1,90 @@
+package com.aditya2254.ecommerceapp.cloudgateway.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.netty4.NettyAllocatorMetrics;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Runs the gateway's Netty server and upstream client on one shared set of event loops
+ * (epoll when available) and one tuned pooled allocator, and exposes allocator and
+ * direct-memory metrics.
+ */
+@Configuration
+public class NettyTransportConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(NettyTransportConfig.class);
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources gatewayLoopResources(NettyTransportProperties properties) {
+        boolean epoll = properties.isNativeTransport() && Epoll.isAvailable();
+        log.info("Netty transport: {}, selector threads: {}, worker threads: {}",
+                epoll ? "epoll" : "nio", properties.getSelectorThreads(), properties.getWorkerThreads());
+        return LoopResources.create("gateway-http", properties.getSelectorThreads(),
+                properties.getWorkerThreads(), true);
+    }
+
+    @Bean
+    public PooledByteBufAllocator gatewayByteBufAllocator(NettyTransportProperties properties) {
+        NettyTransportProperties.Allocator allocator = properties.getAllocator();
+        return new PooledByteBufAllocator(
+                allocator.isPreferDirect(),
+                allocator.getHeapArenas(),
+                allocator.getDirectArenas(),
+                allocator.getPageSize(),
+                allocator.getMaxOrder(),
+                allocator.getSmallCacheSize(),
+                allocator.getNormalCacheSize(),
+                allocator.isUseCacheForAllThreads());
+    }
+
+    @Bean
+    public NettyServerCustomizer gatewayNettyServerCustomizer(LoopResources gatewayLoopResources,
+                                                              PooledByteBufAllocator gatewayByteBufAllocator,
+                                                              NettyTransportProperties properties) {
+        return httpServer -> httpServer
+                .runOn(gatewayLoopResources, properties.isNativeTransport())
+                .option(ChannelOption.ALLOCATOR, gatewayByteBufAllocator)
+                .childOption(ChannelOption.ALLOCATOR, gatewayByteBufAllocator);
+    }
+
+    @Bean
+    public HttpClientCustomizer gatewayHttpClientCustomizer(LoopResources gatewayLoopResources,
+                                                            PooledByteBufAllocator gatewayByteBufAllocator,
+                                                            NettyTransportProperties properties) {
+        return httpClient -> httpClient
+                .runOn(gatewayLoopResources, properties.isNativeTransport())
+                .option(ChannelOption.ALLOCATOR, gatewayByteBufAllocator);
+    }
+
+    @Bean
+    public MeterBinder nettyAllocatorMetrics(PooledByteBufAllocator gatewayByteBufAllocator) {
+        return new NettyAllocatorMetrics(gatewayByteBufAllocator);
+    }
+
+    @Bean
+    public MeterBinder nettyDirectMemoryMetrics(NettyTransportProperties properties) {
+        return registry -> {
+            Gauge.builder("netty.direct.memory.used", PlatformDependent::usedDirectMemory)
+                    .description("Direct memory reserved by Netty (-1 when not tracked)")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("netty.direct.memory.max", PlatformDependent::maxDirectMemory)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("netty.transport.native", () -> properties.isNativeTransport() && Epoll.isAvailable() ? 1 : 0)
+                    .description("1 when the epoll transport is in use")
+                    .register(registry);
+        };
+    }
+}
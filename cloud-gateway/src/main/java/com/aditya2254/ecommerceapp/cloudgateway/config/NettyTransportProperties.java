@@ -0,0 +1,47 @@
+package com.aditya2254.ecommerceapp.cloudgateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event-loop and buffer allocator settings shared by the gateway's Netty server and
+ * its upstream HTTP client.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.netty")
+public class NettyTransportProperties {
+
+    // Use epoll when the native library is available, otherwise fall back to NIO
+    private boolean nativeTransport = true;
+
+    private int selectorThreads = 1;
+
+    private int workerThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private Allocator allocator = new Allocator();
+
+    @Data
+    public static class Allocator {
+
+        private boolean preferDirect = true;
+
+        // One arena per worker avoids contention; each arena reserves chunks of pageSize << maxOrder
+        private int directArenas = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        private int heapArenas = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        private int pageSize = 8192;
+
+        // 8 KiB << 9 = 4 MiB chunks, small enough for a 700m container
+        private int maxOrder = 9;
+
+        private int smallCacheSize = 256;
+
+        private int normalCacheSize = 64;
+
+        // Only cache buffers on event-loop threads, not on arbitrary worker threads
+        private boolean useCacheForAllThreads = false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.aditya2254.ecommerceapp.cloudgateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings for the flash-sale waiting room. Only orders containing one of
+ * {@link #productIds} go through the room; everything else is untouched.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.waiting-room")
+public class WaitingRoomProperties {
+
+    private Set<Long> productIds = new HashSet<>();
+
+    // Tickets admitted per second for each product, further capped by remaining stock
+    private int admitPerSecond = 50;
+
+    // Waiting tickets per product beyond which new ticket requests are refused
+    private int maxQueueSize = 100_000;
+
+    // How long an admitted ticket may be used to place an order
+    private Duration admissionWindow = Duration.ofMinutes(2);
+
+    private Duration stockRefreshInterval = Duration.ofSeconds(2);
+
+    // HMAC secret for tickets; a random one is generated when empty (single gateway instance)
+    private String ticketSecret = "";
+}
@@ -0,0 +1,80 @@
+package com.aditya2254.ecommerceapp.cloudgateway.controller;
+
+import com.aditya2254.ecommerceapp.cloudgateway.service.TokenValidationService;
+import com.aditya2254.ecommerceapp.cloudgateway.service.WaitingRoomService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ticket endpoints for the flash-sale waiting room. Served by the gateway itself,
+ * so a launch spike never reaches the downstream services.
+ */
+@RestController
+@RequestMapping("/waiting-room/products/{productId}/tickets")
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+    private final TokenValidationService tokenValidationService;
+
+    public WaitingRoomController(WaitingRoomService waitingRoomService,
+                                 TokenValidationService tokenValidationService) {
+        this.waitingRoomService = waitingRoomService;
+        this.tokenValidationService = tokenValidationService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<Map<String, Object>>> takeTicket(
+            @PathVariable Long productId,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authHeader) {
+        if (!waitingRoomService.isManaged(productId)) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Missing Authorization header"));
+        }
+
+        return tokenValidationService.validateToken(authHeader.substring(7))
+                .onErrorMap(e -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token", e))
+                .map(user -> toResponse(productId,
+                        waitingRoomService.issueTicket(productId, user.getId().toString()),
+                        HttpStatus.CREATED));
+    }
+
+    @GetMapping("/{ticket}")
+    public Mono<ResponseEntity<Map<String, Object>>> ticketStatus(@PathVariable Long productId,
+                                                                  @PathVariable String ticket) {
+        return Mono.just(toResponse(productId, waitingRoomService.status(productId, ticket), HttpStatus.OK));
+    }
+
+    private ResponseEntity<Map<String, Object>> toResponse(Long productId, WaitingRoomService.Decision decision,
+                                                           HttpStatus successStatus) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("productId", productId);
+        body.put("status", decision.status().name().toLowerCase());
+
+        HttpStatus status = switch (decision.status()) {
+            case QUEUED, ADMITTED -> {
+                body.put("ticket", decision.ticket());
+                body.put("position", decision.position());
+                yield successStatus;
+            }
+            case SOLD_OUT -> HttpStatus.GONE;
+            case QUEUE_FULL -> HttpStatus.SERVICE_UNAVAILABLE;
+            case EXPIRED -> HttpStatus.FORBIDDEN;
+            case INVALID -> HttpStatus.NOT_FOUND;
+        };
+        return ResponseEntity.status(status).body(body);
+    }
+}
@@ -0,0 +1,13 @@
+package com.aditya2254.ecommerceapp.cloudgateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemDTO {
+    private Long productId;
+    private Integer quantity;
+}
@@ -28,6 +28,12 @@ public class GlobalAuthFilter implements GlobalFilter, Ordered {
             "/product-service/products"
     };
 
+    /**
+     * First path segment after the service id of service-to-service APIs (e.g.
+     * /user-service/internal/users/batch), which must not be reachable through the gateway.
+     */
+    private static final String INTERNAL_SEGMENT = "internal";
+
     public GlobalAuthFilter(TokenValidationService tokenValidationService) {
         this.tokenValidationService = tokenValidationService;
     }
@@ -39,6 +45,12 @@ public class GlobalAuthFilter implements GlobalFilter, Ordered {
 
         log.info("Processing request for path: {}", path);
 
+        // Service-to-service APIs are only for calls inside the cluster
+        if (isInternalPath(request)) {
+            log.warn("Rejected request for internal path: {}", path);
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        }
+
         // Skip authentication for public endpoints
         for (String publicPath : PUBLIC_PATHS) {
             if (path.startsWith(publicPath)) {
@@ -77,6 +89,28 @@ public class GlobalAuthFilter implements GlobalFilter, Ordered {
                 });
     }
 
+    /**
+     * Checks the decoded path, ignoring empty segments, so neither "//" nor percent-encoding
+     * hides the internal segment from this check while the service still sees it.
+     */
+    private static boolean isInternalPath(ServerHttpRequest request) {
+        String decodedPath = request.getURI().getPath();
+        if (decodedPath == null) {
+            return false;
+        }
+        int segment = 0;
+        for (String part : decodedPath.split("/")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (segment == 1) {
+                return part.equalsIgnoreCase(INTERNAL_SEGMENT);
+            }
+            segment++;
+        }
+        return false;
+    }
+
     @Override
     public int getOrder() {
         return -100; // Higher precedence than route filters
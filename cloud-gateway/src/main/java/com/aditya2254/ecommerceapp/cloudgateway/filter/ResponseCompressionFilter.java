@@ -0,0 +1,169 @@
+package com.aditya2254.ecommerceapp.cloudgateway.filter;
+
+import com.aditya2254.ecommerceapp.cloudgateway.config.CompressionProperties;
+import com.aditya2254.ecommerceapp.cloudgateway.service.CompressedVariantCache;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Gzip-compresses large JSON responses for clients that accept it.
+ * Compressed bodies come from {@link CompressedVariantCache}, so identical hot
+ * responses (e.g. the product catalog) are only compressed once.
+ * The whole body is buffered to be compressed, so bodies above
+ * gateway.compression.max-buffered-size and streamed responses are passed through as they are.
+ */
+@Component
+public class ResponseCompressionFilter implements GlobalFilter, Ordered {
+
+    private static final String GZIP = "gzip";
+
+    private final CompressionProperties properties;
+    private final CompressedVariantCache variantCache;
+
+    public ResponseCompressionFilter(CompressionProperties properties, CompressedVariantCache variantCache) {
+        this.properties = properties;
+        this.variantCache = variantCache;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled() || !acceptsGzip(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+        ServerHttpResponse compressingResponse = new CompressingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(compressingResponse).build());
+    }
+
+    @Override
+    public int getOrder() {
+        // Must wrap the response before NettyWriteResponseFilter writes the upstream body
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private boolean acceptsGzip(ServerHttpRequest request) {
+        for (String value : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                if (parts[0].trim().equalsIgnoreCase(GZIP) && qualityOf(parts) > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads the q parameter of one Accept-Encoding entry, split at ';'.
+     * A missing q means 1; a malformed one counts as 0, i.e. not acceptable.
+     */
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            int eq = param.indexOf('=');
+            if (eq > 0 && param.substring(0, eq).trim().equalsIgnoreCase("q")) {
+                try {
+                    double q = Double.parseDouble(param.substring(eq + 1).trim());
+                    return Double.isNaN(q) ? 0 : q;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private boolean isCompressible(HttpHeaders headers) {
+        if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+        long contentLength = headers.getContentLength();
+        if (contentLength >= 0
+                && (contentLength < properties.getMinResponseSize() || contentLength > properties.getMaxBufferedSize())) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        for (String mimeType : properties.getMimeTypes()) {
+            if (MediaType.parseMediaType(mimeType).isCompatibleWith(contentType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        CompressingResponse(ServerHttpResponse delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isCompressible(getHeaders())) {
+                return super.writeWith(body);
+            }
+            // Collects the body until it ends or outgrows the limit; past the limit every
+            // further buffer is emitted on its own
+            long[] buffered = {0};
+            Flux<List<DataBuffer>> chunks = Flux.from(body)
+                    .map(buffer -> (DataBuffer) buffer)
+                    .bufferUntil(buffer -> (buffered[0] += buffer.readableByteCount()) > properties.getMaxBufferedSize());
+            return chunks
+                    .switchOnFirst((first, all) -> {
+                        if (first.hasValue() && buffered[0] <= properties.getMaxBufferedSize()) {
+                            // Still within the limit, so the first chunk is the whole body
+                            return all.next().flatMap(this::writeCompressed);
+                        }
+                        return super.writeWith(all.concatMapIterable(buffers -> buffers));
+                    })
+                    .then();
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            // Streamed responses (e.g. the catalog export) must reach the client as they are produced
+            return super.writeAndFlushWith(body);
+        }
+
+        private Mono<Void> writeCompressed(List<DataBuffer> buffers) {
+            byte[] raw = new byte[buffers.stream().mapToInt(DataBuffer::readableByteCount).sum()];
+            int offset = 0;
+            for (DataBuffer buffer : buffers) {
+                int length = buffer.readableByteCount();
+                buffer.read(raw, offset, length);
+                offset += length;
+                DataBufferUtils.release(buffer);
+            }
+
+            if (raw.length < properties.getMinResponseSize()) {
+                return super.writeWith(Mono.just(bufferFactory().wrap(raw)));
+            }
+
+            byte[] compressed = variantCache.gzip(raw);
+            HttpHeaders headers = getHeaders();
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            headers.remove(HttpHeaders.TRANSFER_ENCODING);
+            headers.setContentLength(compressed.length);
+            return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.aditya2254.ecommerceapp.cloudgateway.filter;
+
+import com.aditya2254.ecommerceapp.cloudgateway.service.WaitingRoomService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Guards order placement for waiting-room products. An order that contains a managed
+ * product must carry an admitted {@value #TICKET_HEADER}; otherwise it is answered
+ * here with a cheap "queued" or "sold out" response and never reaches orders-service.
+ * An order without items checks out the cart, so the cart is looked up for managed
+ * products, and a managed product is only added to the cart with an admitted ticket.
+ *
+ * Requests are matched on the downstream path once the route has been resolved, so
+ * every route to orders-service is covered (e.g. /api/orders and the discovery route
+ * /orders-service/orders both end up at /orders).
+ */
+@Component
+public class WaitingRoomFilter implements GlobalFilter, Ordered {
+
+    public static final String TICKET_HEADER = "X-Waiting-Room-Ticket";
+
+    private static final Logger log = LoggerFactory.getLogger(WaitingRoomFilter.class);
+    private static final String ORDERS_PATH = "/orders";
+    private static final String CART_ADD_PATH = "/cart/add";
+
+    private final WaitingRoomService waitingRoomService;
+    private final ObjectMapper objectMapper;
+
+    public WaitingRoomFilter(WaitingRoomService waitingRoomService, ObjectMapper objectMapper) {
+        this.waitingRoomService = waitingRoomService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (!waitingRoomService.hasRooms()
+                || request.getMethod() != HttpMethod.POST
+                || requestUrl == null) {
+            return chain.filter(exchange);
+        }
+        // Collapse repeated slashes, which orders-service would ignore as well
+        String path = requestUrl.getPath() == null ? "" : requestUrl.getPath().replaceAll("/{2,}", "/");
+        boolean placesOrder = ORDERS_PATH.equals(path);
+        if (!placesOrder && !CART_ADD_PATH.equals(path)) {
+            return chain.filter(exchange);
+        }
+
+        return ServerWebExchangeUtils.cacheRequestBody(exchange, cachedRequest -> {
+            ServerWebExchange cachedExchange = exchange.mutate().request(cachedRequest).build();
+            JsonNode body = readBody(exchange.getAttribute(ServerWebExchangeUtils.CACHED_REQUEST_BODY_ATTR));
+            if (body.isMissingNode()) {
+                // orders-service rejects what it cannot read either
+                return chain.filter(cachedExchange);
+            }
+            String ticket = request.getHeaders().getFirst(TICKET_HEADER);
+            String userId = request.getHeaders().getFirst("X-User-ID");
+
+            if (!placesOrder) {
+                // The ticket is only checked here and consumed when the cart is checked out
+                Long productId = managedProduct(body.path("productId"));
+                if (productId == null) {
+                    return chain.filter(cachedExchange);
+                }
+                return admitOrReject(chain, cachedExchange, productId, ticket,
+                        waitingRoomService.check(productId, ticket, userId));
+            }
+
+            JsonNode items = body.path("items");
+            Mono<Long> managedProduct = items.isArray() && !items.isEmpty()
+                    ? Mono.justOrEmpty(findManagedProduct(items))
+                    : waitingRoomService.findManagedProductInCart(userId)
+                            .onErrorMap(e -> {
+                                log.warn("Could not look up cart for waiting room check: {}", e.getMessage());
+                                return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Cart lookup failed", e);
+                            });
+            return managedProduct
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(productId -> productId.isEmpty()
+                            ? chain.filter(cachedExchange)
+                            : admitOrReject(chain, cachedExchange, productId.get(), ticket,
+                                    waitingRoomService.consume(productId.get(), ticket, userId)));
+        });
+    }
+
+    @Override
+    public int getOrder() {
+        // After RouteToRequestUrlFilter so the downstream path is known (and long after
+        // GlobalAuthFilter, so X-User-ID is present), before the load balancer and routing
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+
+    private Mono<Void> admitOrReject(GatewayFilterChain chain, ServerWebExchange exchange, Long productId,
+                                     String ticket, WaitingRoomService.Decision decision) {
+        if (decision.status() == WaitingRoomService.Status.ADMITTED) {
+            return chain.filter(exchange);
+        }
+        return reject(exchange, productId, ticket == null ? null : decision);
+    }
+
+    private JsonNode readBody(DataBuffer body) {
+        if (body == null) {
+            return MissingNode.getInstance();
+        }
+        try {
+            // Read a copy: reading the buffer itself would move its read position to the end,
+            // and the cached request forwards only the unread bytes
+            return objectMapper.readTree(body.toString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.debug("Could not read order body for waiting room check: {}", e.getMessage());
+            return MissingNode.getInstance();
+        }
+    }
+
+    private Long findManagedProduct(JsonNode items) {
+        for (JsonNode item : items) {
+            Long productId = managedProduct(item.path("productId"));
+            if (productId != null) {
+                return productId;
+            }
+        }
+        return null;
+    }
+
+    private Long managedProduct(JsonNode productId) {
+        return productId.canConvertToLong() && waitingRoomService.isManaged(productId.asLong())
+                ? productId.asLong()
+                : null;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, Long productId, WaitingRoomService.Decision decision) {
+        HttpStatus status;
+        Map<String, Object> body = new HashMap<>();
+        body.put("productId", productId);
+
+        if (decision == null) {
+            status = HttpStatus.PRECONDITION_REQUIRED;
+            body.put("status", "ticket_required");
+            body.put("message", "Take a ticket at /waiting-room/products/" + productId + "/tickets");
+        } else {
+            switch (decision.status()) {
+                case SOLD_OUT -> {
+                    status = HttpStatus.GONE;
+                    body.put("status", "sold_out");
+                }
+                case QUEUED -> {
+                    status = HttpStatus.TOO_MANY_REQUESTS;
+                    body.put("status", "queued");
+                    body.put("position", decision.position());
+                    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+                }
+                case EXPIRED -> {
+                    status = HttpStatus.FORBIDDEN;
+                    body.put("status", "ticket_expired");
+                }
+                default -> {
+                    status = HttpStatus.FORBIDDEN;
+                    body.put("status", "ticket_invalid");
+                }
+            }
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        try {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(objectMapper.writeValueAsBytes(body))));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.aditya2254.ecommerceapp.cloudgateway.service;
+
+import com.aditya2254.ecommerceapp.cloudgateway.config.CompressionProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compresses response bodies and keeps the compressed variants keyed by the
+ * SHA-256 of the uncompressed payload, so a hot response is compressed once and
+ * then served from memory for every request that produces the same bytes.
+ */
+@Service
+public class CompressedVariantCache {
+
+    private final Cache<String, byte[]> variants;
+    private final DistributionSummary compressionRatio;
+    private final Timer compressionCpuTime;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+    public CompressedVariantCache(CompressionProperties properties, MeterRegistry meterRegistry) {
+        this.variants = Caffeine.newBuilder()
+                .maximumWeight(properties.getVariantCacheMaxBytes())
+                .weigher((String key, byte[] value) -> value.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, variants, "gateway.compression.variants");
+
+        this.compressionRatio = DistributionSummary.builder("gateway.compression.ratio")
+                .description("Compressed size divided by original size")
+                .publishPercentiles(0.5, 0.9)
+                .register(meterRegistry);
+        this.compressionCpuTime = Timer.builder("gateway.compression.cpu.time")
+                .description("CPU time spent gzip-compressing response bodies")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the gzip variant of the given body, compressing it only on a cache miss.
+     */
+    public byte[] gzip(byte[] body) {
+        return variants.get(digest(body), key -> compress(body));
+    }
+
+    private byte[] compress(byte[] body) {
+        boolean cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported();
+        long start = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to gzip response body", e);
+        }
+        byte[] compressed = out.toByteArray();
+
+        long end = cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+        compressionCpuTime.record(end - start, TimeUnit.NANOSECONDS);
+        compressionRatio.record((double) compressed.length / body.length);
+        return compressed;
+    }
+
+    private static String digest(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.aditya2254.ecommerceapp.cloudgateway.service;
+
+import com.aditya2254.ecommerceapp.cloudgateway.config.JwtVerificationProperties;
+import com.aditya2254.ecommerceapp.cloudgateway.dto.JsonWebKeySetDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the public keys user-service signs tokens with, fetched from its JWKS endpoint.
+ *
+ * The key set is loaded at startup and refreshed periodically. A token carrying a kid that
+ * is not cached triggers an immediate refresh, which is how a rotated-in key is picked up
+ * without restarting the gateway. Those refreshes are rate limited and concurrent callers
+ * share a single in-flight request.
+ */
+@Service
+public class JwksKeyProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(JwksKeyProvider.class);
+
+    private final JwtVerificationProperties properties;
+    private final WebClient webClient;
+    private final AtomicReference<Map<String, PublicKey>> keys = new AtomicReference<>(Map.of());
+    private final AtomicReference<Mono<Map<String, PublicKey>>> inFlight = new AtomicReference<>();
+    private volatile long lastFetchNanos;
+    private Disposable periodicRefresh;
+
+    public JwksKeyProvider(JwtVerificationProperties properties, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.webClient = webClientBuilder.clone().build();
+        this.lastFetchNanos = System.nanoTime() - properties.getJwksMinRefreshInterval().toNanos();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isLocalVerification()) {
+            return;
+        }
+        periodicRefresh = Flux.interval(Duration.ZERO, properties.getJwksRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> fetch().onErrorResume(e -> {
+                    log.warn("Failed to refresh JWKS from {}: {}", properties.getJwksUri(), e.getMessage());
+                    return Mono.empty();
+                }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (periodicRefresh != null) {
+            periodicRefresh.dispose();
+        }
+    }
+
+    /**
+     * Returns the cached key for a kid without any I/O, or null when it is not cached.
+     */
+    public PublicKey getCachedKey(String kid) {
+        return kid == null ? null : keys.get().get(kid);
+    }
+
+    /**
+     * Returns the key for a kid, refreshing the key set first when the kid is unknown.
+     * Completes empty when the kid is still unknown after the refresh, and with an error
+     * when the key set cannot be fetched.
+     */
+    public Mono<PublicKey> getKey(String kid) {
+        PublicKey key = getCachedKey(kid);
+        if (key != null) {
+            return Mono.just(key);
+        }
+        if (System.nanoTime() - lastFetchNanos < properties.getJwksMinRefreshInterval().toNanos()) {
+            return Mono.empty();
+        }
+        return fetch().flatMap(refreshed -> Mono.justOrEmpty(refreshed.get(kid)));
+    }
+
+    private Mono<Map<String, PublicKey>> fetch() {
+        Mono<Map<String, PublicKey>> current = inFlight.get();
+        if (current != null) {
+            return current;
+        }
+        Mono<Map<String, PublicKey>> request = webClient.get()
+                .uri(properties.getJwksUri())
+                .retrieve()
+                .bodyToMono(JsonWebKeySetDTO.class)
+                .map(this::toPublicKeys)
+                .doOnNext(loaded -> {
+                    if (!loaded.keySet().equals(keys.get().keySet())) {
+                        log.info("Loaded JWKS with key ids {}", loaded.keySet());
+                    }
+                    keys.set(loaded);
+                })
+                .doFinally(signal -> inFlight.set(null))
+                .cache();
+        if (!inFlight.compareAndSet(null, request)) {
+            Mono<Map<String, PublicKey>> winner = inFlight.get();
+            return winner != null ? winner : Mono.just(keys.get());
+        }
+        lastFetchNanos = System.nanoTime();
+        return request;
+    }
+
+    private Map<String, PublicKey> toPublicKeys(JsonWebKeySetDTO jwks) {
+        Map<String, PublicKey> loaded = new HashMap<>();
+        for (JsonWebKeySetDTO.JsonWebKey jwk : jwks.getKeys()) {
+            if (!"RSA".equals(jwk.getKty()) || jwk.getKid() == null) {
+                continue;
+            }
+            try {
+                BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getN()));
+                BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.getE()));
+                loaded.put(jwk.getKid(), KeyFactory.getInstance("RSA")
+                        .generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.warn("Ignoring unusable JWK {}: {}", jwk.getKid(), e.getMessage());
+            }
+        }
+        return Map.copyOf(loaded);
+    }
+}
@@ -1,6 +1,15 @@
 package com.aditya2254.ecommerceapp.cloudgateway.service;
 
+import com.aditya2254.ecommerceapp.cloudgateway.config.JwtVerificationProperties;
 import com.aditya2254.ecommerceapp.cloudgateway.dto.UserDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
@@ -10,20 +19,87 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.security.Key;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Validates access tokens and resolves the user they belong to.
+ *
+ * RS256 tokens carrying a kid are verified locally against the user-service key set
+ * (see JwksKeyProvider), and the user is read from the token claims. Everything else
+ * (legacy HS256 tokens, tokens without the user claims, or an unreachable key set)
+ * falls back to user-service's GET /api/auth/validate, which verifies the token and
+ * answers from its claims without going through user-service's security filter chain.
+ */
 @Service
 public class TokenValidationService {
 
+    private static final ObjectMapper HEADER_MAPPER = new ObjectMapper();
+
     private final WebClient webClient;
+    private final JwksKeyProvider jwksKeyProvider;
+    private final JwtVerificationProperties properties;
+    private final JwtParser jwtParser;
 
     private static final Logger log = LoggerFactory.getLogger(TokenValidationService.class);
 
-    public TokenValidationService(WebClient.Builder webClientBuilder) {
+    public TokenValidationService(WebClient.Builder webClientBuilder,
+                                  JwksKeyProvider jwksKeyProvider,
+                                  JwtVerificationProperties properties) {
         this.webClient = webClientBuilder.baseUrl("lb://user-service").build();
+        this.jwksKeyProvider = jwksKeyProvider;
+        this.properties = properties;
+        // Keys are made available by getKey() before parsing, so resolution never does I/O
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = TokenValidationService.this.jwksKeyProvider.getCachedKey(header.getKeyId());
+                        if (key == null) {
+                            throw new JwtException("Unknown signing key id: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     public Mono<UserDTO> validateToken(String token) {
+        String kid = properties.isLocalVerification() ? readKeyId(token) : null;
+        if (kid == null) {
+            return validateRemotely(token);
+        }
+        return jwksKeyProvider.getKey(kid)
+                .onErrorResume(e -> {
+                    log.warn("JWKS unavailable, validating token remotely: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                // Signature or expiry failures propagate; only a missing key or claims fall back
+                .flatMap(key -> Mono.fromCallable(() -> verifyLocally(token)))
+                .switchIfEmpty(Mono.defer(() -> validateRemotely(token)));
+    }
+
+    /**
+     * Verifies the signature and expiry with the cached public key and builds the user from
+     * the claims. Returns null when the token predates the profile claims.
+     */
+    private UserDTO verifyLocally(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        Number userId = claims.get("userId", Number.class);
+        String email = claims.get("email", String.class);
+        List<?> roles = claims.get("roles", List.class);
+        if (userId == null || email == null || roles == null) {
+            return null;
+        }
+        return new UserDTO(userId.longValue(), claims.getSubject(), email,
+                roles.stream().map(String::valueOf).toList());
+    }
+
+    private Mono<UserDTO> validateRemotely(String token) {
         return webClient.get()
-                .uri("/api/users/profile")
+                .uri("/api/auth/validate")
                 .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
                 .accept(MediaType.APPLICATION_JSON)
                 .retrieve()
@@ -38,4 +114,21 @@ public class TokenValidationService {
                 .bodyToMono(UserDTO.class)
                 .doOnNext(userDTO -> log.debug("Token validation successful for user: {}", userDTO.getUsername()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the kid from the token header without verifying anything, or null if absent.
+     */
+    private static String readKeyId(String token) {
+        int headerEnd = token.indexOf('.');
+        if (headerEnd <= 0) {
+            return null;
+        }
+        try {
+            JsonNode kid = HEADER_MAPPER.readTree(Base64.getUrlDecoder().decode(token.substring(0, headerEnd)))
+                    .path(JwsHeader.KEY_ID);
+            return kid.isTextual() ? kid.asText() : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.aditya2254.ecommerceapp.cloudgateway.service;
+
+import com.aditya2254.ecommerceapp.cloudgateway.config.WaitingRoomProperties;
+import com.aditya2254.ecommerceapp.cloudgateway.dto.CartItemDTO;
+import com.aditya2254.ecommerceapp.cloudgateway.dto.ProductStockDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Virtual waiting room for flash-sale products.
+ *
+ * Users take a numbered ticket per product and are admitted in ticket order at a fixed
+ * rate, never admitting more users than there is remaining stock. Only admitted tickets
+ * may place an order, so a launch turns into a trickle of orders against the product row
+ * instead of thousands of concurrent reservations. Tickets are HMAC-signed strings of the
+ * form {@code productId.sequence.userId.signature} and are single use. An admitted ticket
+ * also lets the product into the user's cart; it is consumed when the cart is checked out.
+ *
+ * Queue state is held in memory, so it is per gateway instance.
+ */
+@Service
+public class WaitingRoomService {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitingRoomService.class);
+
+    private static final Duration ADMISSION_TICK = Duration.ofMillis(250);
+
+    public enum Status {
+        QUEUED, ADMITTED, SOLD_OUT, QUEUE_FULL, EXPIRED, INVALID
+    }
+
+    public record Decision(Status status, String ticket, long position) {
+
+        static Decision of(Status status) {
+            return new Decision(status, null, 0);
+        }
+    }
+
+    private final WaitingRoomProperties properties;
+    private final WebClient productClient;
+    private final WebClient orderClient;
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    private final SecretKeySpec ticketKey;
+    private final ThreadLocal<Mac> macs;
+    private final Disposable.Composite schedules = Disposables.composite();
+
+    public WaitingRoomService(WaitingRoomProperties properties, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.productClient = webClientBuilder.clone().baseUrl("lb://product-service").build();
+        this.orderClient = webClientBuilder.clone().baseUrl("lb://orders-service").build();
+
+        byte[] secret = properties.getTicketSecret().isBlank()
+                ? randomSecret()
+                : properties.getTicketSecret().getBytes(StandardCharsets.UTF_8);
+        this.ticketKey = new SecretKeySpec(secret, "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(ticketKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Long productId : properties.getProductIds()) {
+            rooms.put(productId, new Room());
+        }
+        if (rooms.isEmpty()) {
+            return;
+        }
+        log.info("Waiting room enabled for products {}", rooms.keySet());
+        schedules.add(Flux.interval(ADMISSION_TICK)
+                .subscribe(tick -> rooms.values().forEach(room -> admit(room, System.nanoTime()))));
+        schedules.add(Flux.interval(Duration.ZERO, properties.getStockRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(rooms.entrySet())
+                        .flatMap(entry -> refreshStock(entry.getKey(), entry.getValue())))
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        schedules.dispose();
+    }
+
+    public boolean hasRooms() {
+        return !rooms.isEmpty();
+    }
+
+    public boolean isManaged(Long productId) {
+        return productId != null && rooms.containsKey(productId);
+    }
+
+    /**
+     * Hands out the next ticket for the product, or refuses immediately when the product
+     * is sold out or the queue is already at capacity.
+     */
+    public Decision issueTicket(Long productId, String userId) {
+        Room room = rooms.get(productId);
+        if (room == null) {
+            return Decision.of(Status.INVALID);
+        }
+        if (room.isSoldOut()) {
+            return Decision.of(Status.SOLD_OUT);
+        }
+        if (room.issued.get() - room.admittedThrough >= properties.getMaxQueueSize()) {
+            return Decision.of(Status.QUEUE_FULL);
+        }
+        long sequence = room.issued.incrementAndGet();
+        String payload = productId + "." + sequence + "." + userId;
+        return new Decision(Status.QUEUED, payload + "." + sign(payload), sequence - room.admittedThrough);
+    }
+
+    /**
+     * Reports where a ticket stands without consuming it.
+     */
+    public Decision status(Long productId, String ticket) {
+        ParsedTicket parsed = parse(productId, ticket);
+        Room room = parsed == null ? null : rooms.get(productId);
+        if (room == null) {
+            return Decision.of(Status.INVALID);
+        }
+        return evaluate(room, parsed.sequence(), ticket);
+    }
+
+    /**
+     * Consumes an admitted ticket for an order placed by the given user.
+     * Anything other than {@link Status#ADMITTED} means the order must be rejected.
+     */
+    public Decision consume(Long productId, String ticket, String userId) {
+        ParsedTicket parsed = parse(productId, ticket);
+        Room room = parsed == null ? null : rooms.get(productId);
+        if (room == null || !parsed.userId().equals(userId)) {
+            return rejectForeign(room);
+        }
+        if (room.admitted.remove(parsed.sequence()) != null) {
+            int stock = room.remainingStock;
+            if (stock > 0) {
+                // Best effort until the next refresh from product-service
+                room.remainingStock = stock - 1;
+            }
+            return new Decision(Status.ADMITTED, ticket, 0);
+        }
+        return evaluate(room, parsed.sequence(), ticket);
+    }
+
+    /**
+     * Checks that a ticket of the given user is admitted without consuming it, e.g. before
+     * the product is added to the user's cart.
+     */
+    public Decision check(Long productId, String ticket, String userId) {
+        ParsedTicket parsed = parse(productId, ticket);
+        Room room = parsed == null ? null : rooms.get(productId);
+        if (room == null || !parsed.userId().equals(userId)) {
+            return rejectForeign(room);
+        }
+        return evaluate(room, parsed.sequence(), ticket);
+    }
+
+    /**
+     * Looks up the user's cart in orders-service and returns the first waiting-room product
+     * in it, for orders that check out the cart instead of listing their items.
+     */
+    public Mono<Long> findManagedProductInCart(String userId) {
+        return orderClient.get()
+                .uri("/cart")
+                .header("X-User-ID", userId)
+                .retrieve()
+                .bodyToFlux(CartItemDTO.class)
+                // orders-service answers an empty cart with 404
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Flux.empty())
+                .filter(item -> isManaged(item.getProductId()))
+                .map(CartItemDTO::getProductId)
+                .next();
+    }
+
+    /**
+     * Answer for a ticket that is malformed or belongs to another user (room is null if malformed).
+     */
+    private static Decision rejectForeign(Room room) {
+        return room != null && room.isSoldOut() ? Decision.of(Status.SOLD_OUT) : Decision.of(Status.INVALID);
+    }
+
+    private Decision evaluate(Room room, long sequence, String ticket) {
+        long admittedThrough = room.admittedThrough;
+        if (sequence > admittedThrough) {
+            return room.isSoldOut()
+                    ? Decision.of(Status.SOLD_OUT)
+                    : new Decision(Status.QUEUED, ticket, sequence - admittedThrough);
+        }
+        if (room.admitted.containsKey(sequence)) {
+            return new Decision(Status.ADMITTED, ticket, 0);
+        }
+        return Decision.of(Status.EXPIRED);
+    }
+
+    /**
+     * Runs on the single admission tick, so the room's credit is only touched here.
+     */
+    private void admit(Room room, long now) {
+        long windowNanos = properties.getAdmissionWindow().toNanos();
+        room.admitted.values().removeIf(admittedAt -> now - admittedAt > windowNanos);
+
+        double perTick = properties.getAdmitPerSecond() * (ADMISSION_TICK.toMillis() / 1000.0);
+        room.credit = Math.min(room.credit + perTick, properties.getAdmitPerSecond());
+
+        int stock = room.remainingStock;
+        long capacity = stock < 0 ? 0 : stock - room.admitted.size();
+        long waiting = room.issued.get() - room.admittedThrough;
+        long toAdmit = Math.min((long) room.credit, Math.min(capacity, waiting));
+        if (toAdmit <= 0) {
+            return;
+        }
+        long from = room.admittedThrough;
+        for (long sequence = from + 1; sequence <= from + toAdmit; sequence++) {
+            room.admitted.put(sequence, now);
+        }
+        room.admittedThrough = from + toAdmit;
+        room.credit -= toAdmit;
+    }
+
+    private Mono<Void> refreshStock(Long productId, Room room) {
+        return productClient.get()
+                .uri("/products/{id}", productId)
+                .retrieve()
+                .bodyToMono(ProductStockDTO.class)
+                .doOnNext(product -> room.remainingStock = product.getStock() == null ? 0 : product.getStock())
+                .onErrorResume(e -> {
+                    log.warn("Failed to refresh stock for waiting-room product {}: {}", productId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private ParsedTicket parse(Long productId, String ticket) {
+        if (ticket == null) {
+            return null;
+        }
+        int signatureStart = ticket.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return null;
+        }
+        String payload = ticket.substring(0, signatureStart);
+        byte[] expected = sign(payload).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = ticket.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+        String[] parts = payload.split("\\.", 3);
+        if (parts.length != 3 || !parts[0].equals(String.valueOf(productId))) {
+            return null;
+        }
+        try {
+            return new ParsedTicket(Long.parseLong(parts[1]), parts[2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String sign(String payload) {
+        byte[] signature = macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private record ParsedTicket(long sequence, String userId) {
+    }
+
+    private static final class Room {
+        // Highest ticket sequence handed out
+        final AtomicLong issued = new AtomicLong();
+        // Admitted tickets that have not placed an order yet, sequence -> admission time (nanos)
+        final Map<Long, Long> admitted = new ConcurrentHashMap<>();
+        // Every ticket up to this sequence has been admitted (and possibly used or expired)
+        volatile long admittedThrough;
+        // -1 until the first stock refresh; nobody is admitted before then
+        volatile int remainingStock = -1;
+        double credit;
+
+        boolean isSoldOut() {
+            return remainingStock == 0 && admitted.isEmpty();
+        }
+    }
+}
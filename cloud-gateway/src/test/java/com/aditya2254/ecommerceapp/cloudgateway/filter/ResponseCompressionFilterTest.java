@@ -0,0 +1,133 @@
+package com.aditya2254.ecommerceapp.cloudgateway.filter;
+
+import com.aditya2254.ecommerceapp.cloudgateway.config.CompressionProperties;
+import com.aditya2254.ecommerceapp.cloudgateway.service.CompressedVariantCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ResponseCompressionFilterTest {
+
+    private static final int MAX_BUFFERED_SIZE = 16 * 1024;
+    private static final int CHUNK_SIZE = 1024;
+
+    private ResponseCompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        CompressionProperties properties = new CompressionProperties();
+        properties.setMaxBufferedSize(MAX_BUFFERED_SIZE);
+        filter = new ResponseCompressionFilter(properties, new CompressedVariantCache(properties, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void compressesJsonBodyWithinTheLimit() throws IOException {
+        String body = json(MAX_BUFFERED_SIZE / 2);
+        MockServerWebExchange exchange = gzipExchange();
+
+        filter.filter(exchange, respondWith(body, false, false)).block();
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] compressed = bodyOf(exchange);
+        assertEquals(compressed.length, headers.getContentLength());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(body, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void passesThroughBodyThatOutgrowsTheLimit() {
+        String body = json(MAX_BUFFERED_SIZE * 3);
+        MockServerWebExchange exchange = gzipExchange();
+
+        filter.filter(exchange, respondWith(body, false, false)).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, new String(bodyOf(exchange), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void passesThroughBodyWhoseContentLengthExceedsTheLimit() {
+        String body = json(MAX_BUFFERED_SIZE * 2);
+        MockServerWebExchange exchange = gzipExchange();
+
+        filter.filter(exchange, respondWith(body, true, false)).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, new String(bodyOf(exchange), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void passesThroughStreamedBody() {
+        String body = json(MAX_BUFFERED_SIZE / 2);
+        MockServerWebExchange exchange = gzipExchange();
+
+        filter.filter(exchange, respondWith(body, false, true)).block();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body, new String(bodyOf(exchange), StandardCharsets.UTF_8));
+    }
+
+    private static MockServerWebExchange gzipExchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/products")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+    }
+
+    /**
+     * A chain whose upstream answers with a JSON body split into chunks, written either
+     * at once or as a stream that is flushed after every chunk.
+     */
+    private static GatewayFilterChain respondWith(String body, boolean withContentLength, boolean streamed) {
+        return exchange -> {
+            ServerHttpResponse response = exchange.getResponse();
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            if (withContentLength) {
+                response.getHeaders().setContentLength(body.length());
+            }
+            Flux<DataBuffer> chunks = Flux.range(0, (body.length() + CHUNK_SIZE - 1) / CHUNK_SIZE)
+                    .map(i -> body.substring(i * CHUNK_SIZE, Math.min(body.length(), (i + 1) * CHUNK_SIZE)))
+                    .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+            return streamed
+                    ? response.writeAndFlushWith(chunks.map(Flux::just))
+                    : response.writeWith(chunks);
+        };
+    }
+
+    private static byte[] bodyOf(MockServerWebExchange exchange) {
+        return DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .block();
+    }
+
+    /**
+     * A JSON array of the given length in characters, all ASCII.
+     */
+    private static String json(int length) {
+        return "[\"" + "x".repeat(length - 4) + "\"]";
+    }
+}
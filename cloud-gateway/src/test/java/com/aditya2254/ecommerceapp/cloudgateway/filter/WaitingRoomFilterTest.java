@@ -0,0 +1,155 @@
+package com.aditya2254.ecommerceapp.cloudgateway.filter;
+
+import com.aditya2254.ecommerceapp.cloudgateway.service.WaitingRoomService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WaitingRoomFilterTest {
+
+    private static final String ORDER = "{\"items\":[{\"productId\":7,\"quantity\":2},{\"productId\":9,\"quantity\":1}]}";
+    private static final String CART_CHECKOUT = "{\"items\":[],\"shippingAddress\":\"Main St 1\"}";
+    private static final String CART_ITEM = "{\"productId\":7,\"quantity\":1}";
+
+    private WaitingRoomService waitingRoomService;
+    private WaitingRoomFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoomService = mock(WaitingRoomService.class);
+        when(waitingRoomService.hasRooms()).thenReturn(true);
+        when(waitingRoomService.findManagedProductInCart(any())).thenReturn(Mono.empty());
+        WaitingRoomService.Decision invalid = new WaitingRoomService.Decision(WaitingRoomService.Status.INVALID, null, 0);
+        when(waitingRoomService.consume(any(), any(), any())).thenReturn(invalid);
+        when(waitingRoomService.check(any(), any(), any())).thenReturn(invalid);
+        filter = new WaitingRoomFilter(waitingRoomService, new ObjectMapper());
+    }
+
+    @Test
+    void forwardsOrderBodyUnchangedWhenNoProductIsManaged() {
+        when(waitingRoomService.isManaged(anyLong())).thenReturn(false);
+
+        assertEquals(ORDER, forwardedBody(exchange("/api/orders", "/orders", ORDER, null)));
+    }
+
+    @Test
+    void forwardsOrderBodyUnchangedWhenTicketIsAdmitted() {
+        when(waitingRoomService.isManaged(9L)).thenReturn(true);
+        when(waitingRoomService.consume(9L, "ticket", "42"))
+                .thenReturn(new WaitingRoomService.Decision(WaitingRoomService.Status.ADMITTED, "ticket", 0));
+
+        assertEquals(ORDER, forwardedBody(exchange("/api/orders", "/orders", ORDER, "ticket")));
+    }
+
+    @Test
+    void rejectsOrderForManagedProductWithoutTicket() {
+        when(waitingRoomService.isManaged(7L)).thenReturn(true);
+        MockServerWebExchange exchange = exchange("/api/orders", "/orders", ORDER, null);
+
+        assertNull(forwardedBody(exchange));
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void rejectsOrderThroughDiscoveryRouteWithoutTicket() {
+        when(waitingRoomService.isManaged(7L)).thenReturn(true);
+        MockServerWebExchange exchange = exchange("/orders-service/orders", "/orders", ORDER, null);
+
+        assertNull(forwardedBody(exchange));
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void rejectsCartCheckoutOfManagedProductWithoutTicket() {
+        when(waitingRoomService.findManagedProductInCart("42")).thenReturn(Mono.just(7L));
+        MockServerWebExchange exchange = exchange("/orders-service/orders", "/orders", CART_CHECKOUT, null);
+
+        assertNull(forwardedBody(exchange));
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void consumesTicketForCartCheckoutOfManagedProduct() {
+        when(waitingRoomService.findManagedProductInCart("42")).thenReturn(Mono.just(7L));
+        when(waitingRoomService.consume(7L, "ticket", "42"))
+                .thenReturn(new WaitingRoomService.Decision(WaitingRoomService.Status.ADMITTED, "ticket", 0));
+
+        assertEquals(CART_CHECKOUT, forwardedBody(exchange("/orders-service/orders", "/orders", CART_CHECKOUT, "ticket")));
+    }
+
+    @Test
+    void forwardsCartCheckoutWithoutManagedProduct() {
+        assertEquals(CART_CHECKOUT, forwardedBody(exchange("/orders-service/orders", "/orders", CART_CHECKOUT, null)));
+        verify(waitingRoomService, never()).consume(any(), any(), any());
+    }
+
+    @Test
+    void rejectsAddingManagedProductToCartWithoutTicket() {
+        when(waitingRoomService.isManaged(7L)).thenReturn(true);
+        MockServerWebExchange exchange = exchange("/orders-service/cart/add", "/cart/add", CART_ITEM, null);
+
+        assertNull(forwardedBody(exchange));
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    void addsManagedProductToCartWithAdmittedTicketWithoutConsumingIt() {
+        when(waitingRoomService.isManaged(7L)).thenReturn(true);
+        when(waitingRoomService.check(7L, "ticket", "42"))
+                .thenReturn(new WaitingRoomService.Decision(WaitingRoomService.Status.ADMITTED, "ticket", 0));
+
+        assertEquals(CART_ITEM, forwardedBody(exchange("/orders-service/cart/add", "/cart/add", CART_ITEM, "ticket")));
+        verify(waitingRoomService, never()).consume(any(), any(), any());
+    }
+
+    /**
+     * An exchange as the filter sees it once the route is resolved: the gateway path the
+     * client called, and the downstream URL that RouteToRequestUrlFilter computed from it.
+     */
+    private static MockServerWebExchange exchange(String path, String downstreamPath, String body, String ticket) {
+        MockServerHttpRequest.BodyBuilder request = MockServerHttpRequest.post(path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-User-ID", "42");
+        if (ticket != null) {
+            request.header(WaitingRoomFilter.TICKET_HEADER, ticket);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.body(body));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR,
+                URI.create("lb://orders-service" + downstreamPath));
+        return exchange;
+    }
+
+    /**
+     * Runs the filter and returns the body the next filter in the chain reads, or null if
+     * the request was not forwarded.
+     */
+    private String forwardedBody(MockServerWebExchange exchange) {
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        GatewayFilterChain chain = next -> DataBufferUtils.join(next.getRequest().getBody())
+                .doOnNext(buffer -> forwarded.set(buffer.toString(StandardCharsets.UTF_8)))
+                .then();
+        filter.filter(exchange, chain).block();
+        return forwarded.get();
+    }
+}
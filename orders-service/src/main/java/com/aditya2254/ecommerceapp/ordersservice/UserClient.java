@@ -0,0 +1,19 @@
+package com.aditya2254.ecommerceapp.ordersservice;
+
+import com.aditya2254.ecommerceapp.ordersservice.dto.UserDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.Collection;
+import java.util.List;
+
+@FeignClient(name = "user-service")
+public interface UserClient {
+
+    // Internal endpoint, at most user-service.batch-size ids per call (see UserLookupService);
+    // user-service only answers callers presenting the shared internal API token
+    @PostMapping(path = "/internal/users/batch", headers = "X-Internal-Token=${internal-api.token}")
+    List<UserDTO> getUsers(@RequestBody Collection<Long> userIds);
+
+}
@@ -0,0 +1,6 @@
+package com.aditya2254.ecommerceapp.ordersservice.dto;
+
+import java.util.List;
+
+public record UserDTO(Long id, String username, String email, List<String> roles) {
+}
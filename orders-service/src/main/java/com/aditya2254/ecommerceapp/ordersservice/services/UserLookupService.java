@@ -0,0 +1,67 @@
+package com.aditya2254.ecommerceapp.ordersservice.services;
+
+import com.aditya2254.ecommerceapp.ordersservice.UserClient;
+import com.aditya2254.ecommerceapp.ordersservice.dto.UserDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the users behind orders in bulk.
+ *
+ * Orders store the user id as a string (the X-User-ID header set by the gateway). Ids
+ * are de-duplicated and sent to user-service in batches of at most user-service.batch-size,
+ * so resolving the users of a whole page of orders costs one call per batch instead of
+ * one call per order.
+ */
+@Component
+public class UserLookupService {
+
+    @Autowired
+    private UserClient userClient;
+
+    @Value("${user-service.batch-size:500}")
+    private int batchSize;
+
+    public Map<String, UserDTO> getUsersByIds(Collection<String> userIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            if (userId == null) {
+                continue;
+            }
+            try {
+                ids.add(Long.valueOf(userId.trim()));
+            } catch (NumberFormatException e) {
+                // not a user-service id, leave it unresolved
+            }
+        }
+
+        Map<String, UserDTO> users = new HashMap<>();
+        List<Long> batch = new ArrayList<>(Math.min(ids.size(), batchSize));
+        for (Long id : ids) {
+            batch.add(id);
+            if (batch.size() == batchSize) {
+                fetch(batch, users);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            fetch(batch, users);
+        }
+        return users;
+    }
+
+    private void fetch(List<Long> batch, Map<String, UserDTO> users) {
+        for (UserDTO user : userClient.getUsers(batch)) {
+            users.put(user.id().toString(), user);
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.aditya2254.ecommerceapp.productservice;
 
 import com.aditya2254.ecommerceapp.productservice.dto.InventoryReservationRequest;
+import com.aditya2254.ecommerceapp.productservice.dto.ProductPage;
+import com.aditya2254.ecommerceapp.productservice.dto.ProductSort;
 import com.aditya2254.ecommerceapp.productservice.dto.StockUpdateRequest;
 import com.aditya2254.ecommerceapp.productservice.entity.Product;
 import com.aditya2254.ecommerceapp.productservice.exceptions.InsufficientStockException;
 import com.aditya2254.ecommerceapp.productservice.exceptions.ProductNotFoundException;
+import com.aditya2254.ecommerceapp.productservice.service.CatalogExportService;
 import com.aditya2254.ecommerceapp.productservice.service.ProductService;
 import com.aditya2254.ecommerceapp.productservice.response.CustomResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 
@@ -20,11 +26,15 @@ import java.util.*;
 @RestController
 public class ProductController {
 
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final ProductService productService;
+    private final CatalogExportService catalogExportService;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CatalogExportService catalogExportService) {
         this.productService = productService;
+        this.catalogExportService = catalogExportService;
     }
 
     /**
@@ -37,6 +47,31 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    /**
+     * Get one page of products, optionally filtered by category and price range.
+     *
+     * Pass the returned nextCursor, with the same filters and sort, to get the next page;
+     * it is null on the last page.
+     *
+     * @param category Category to filter by
+     * @param minPrice Lowest price to include
+     * @param maxPrice Highest price to include
+     * @param sort Sort order: ID (default) or PRICE, ascending
+     * @param limit Page size
+     * @param cursor Cursor of the page to fetch, omitted for the first page
+     * @return Page of products and the cursor of the next page
+     */
+    @GetMapping(path = "/products/page")
+    public ResponseEntity<ProductPage> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(productService.getProductPage(category, minPrice, maxPrice, sort, limit, cursor));
+    }
+
     /**
      * Get all products with their images.
      *
@@ -47,6 +82,23 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProductsWithImages());
     }
 
+    /**
+     * Export all products with their images as NDJSON, one product per line.
+     *
+     * The response is streamed while the catalog is read, so it starts at once and
+     * memory use does not grow with the catalog.
+     *
+     * @return Streamed NDJSON body
+     */
+    @GetMapping(path = "/products/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportCatalog() {
+        StreamingResponseBody body = catalogExportService::export;
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_NDJSON)
+                .cacheControl(CacheControl.noStore())
+                .body(body);
+    }
+
     /**
      * Get a product by ID without images.
      *
@@ -0,0 +1,61 @@
+package com.aditya2254.ecommerceapp.productservice.dto;
+
+import java.util.List;
+
+/**
+ * One line of the NDJSON catalog export: a product together with its images.
+ */
+public record CatalogExportLine(
+        long id,
+        String name,
+        String description,
+        double price,
+        int stock,
+        String category,
+        List<ImageResponse> images
+) {
+    public CatalogExportLine(long id, String name, String description, double price, int stock, String category, List<ImageResponse> images) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.stock = stock;
+        this.category = category;
+        this.images = images;
+    }
+
+    @Override
+    public long id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String description() {
+        return description;
+    }
+
+    @Override
+    public double price() {
+        return price;
+    }
+
+    @Override
+    public int stock() {
+        return stock;
+    }
+
+    @Override
+    public String category() {
+        return category;
+    }
+
+    @Override
+    public List<ImageResponse> images() {
+        return images;
+    }
+}
@@ -0,0 +1,27 @@
+package com.aditya2254.ecommerceapp.productservice.dto;
+
+import com.aditya2254.ecommerceapp.productservice.entity.Product;
+
+import java.util.List;
+
+/**
+ * One page of the product listing. nextCursor is passed back to fetch the following
+ * page and is null on the last page.
+ */
+public record ProductPage(List<Product> items, String nextCursor) {
+
+    public ProductPage(List<Product> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public List<Product> items() {
+        return items;
+    }
+
+    @Override
+    public String nextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.aditya2254.ecommerceapp.productservice.dto;
+
+/**
+ * Sort orders of the product listing. Every order is ascending and ends with the
+ * product id, so the order is total and a page can continue after its last product.
+ */
+public enum ProductSort {
+    ID("id"),
+    PRICE("price");
+
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    /**
+     * @return the Product property sorted on
+     */
+    public String getProperty() {
+        return property;
+    }
+}
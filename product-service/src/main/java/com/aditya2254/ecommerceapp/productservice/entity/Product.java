@@ -4,8 +4,19 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
+/**
+ * The indexes serve the keyset-paginated listing (GET /products/page): every sort order
+ * ends with the id, and a category filter comes first, so each page is an index range scan.
+ */
 @Entity
+@Table(name = "product", indexes = {
+        @Index(name = "idx_product_price_id", columnList = "price, id"),
+        @Index(name = "idx_product_category_id", columnList = "category, id"),
+        @Index(name = "idx_product_category_price_id", columnList = "category, price, id")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
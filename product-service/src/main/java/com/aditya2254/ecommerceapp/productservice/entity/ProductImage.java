@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import java.time.Instant;
 
     @Entity
-    @Table(name = "product_images")
+    @Table(name = "product_images", indexes = {
+            @Index(name = "idx_product_images_product_order", columnList = "product_id, order_index, id")
+    })
     public class ProductImage {
         @Id
         @GeneratedValue(strategy = GenerationType.IDENTITY)
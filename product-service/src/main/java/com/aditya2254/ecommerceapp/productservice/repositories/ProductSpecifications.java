@@ -0,0 +1,51 @@
+package com.aditya2254.ecommerceapp.productservice.repositories;
+
+import com.aditya2254.ecommerceapp.productservice.dto.ProductSort;
+import com.aditya2254.ecommerceapp.productservice.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Query conditions of the product listing, combined as needed by ProductService.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> inCategory(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Product> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.<Double>get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.<Double>get("price"), maxPrice);
+    }
+
+    /**
+     * Keyset condition: products after the given position in a sort order.
+     *
+     * For the price order this is (price, id) > (lastPrice, lastId), written out as
+     * price > lastPrice OR (price = lastPrice AND id > lastId), which MySQL answers with a
+     * range scan of the (price, id) and (category, price, id) indexes.
+     *
+     * @param sort the sort order
+     * @param lastPrice the price of the last product of the previous page
+     * @param lastId the id of the last product of the previous page
+     * @return the condition
+     */
+    public static Specification<Product> after(ProductSort sort, double lastPrice, long lastId) {
+        if (sort == ProductSort.ID) {
+            return (root, query, cb) -> cb.greaterThan(root.<Long>get("id"), lastId);
+        }
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.<Double>get("price"), lastPrice),
+                cb.and(
+                        cb.equal(root.get("price"), lastPrice),
+                        cb.greaterThan(root.<Long>get("id"), lastId)
+                )
+        );
+    }
+}
@@ -0,0 +1,167 @@
+package com.aditya2254.ecommerceapp.productservice.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.aditya2254.ecommerceapp.productservice.dto.CatalogExportLine;
+import com.aditya2254.ecommerceapp.productservice.dto.ImageResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Writes the whole catalog as NDJSON: one line per product, with its images.
+ *
+ * Products and images are read in a single query, ordered by product, through a
+ * forward-only cursor, and every product is written as soon as its last image has been
+ * read. Only one product is held in memory at a time, however large the catalog is.
+ *
+ * MySQL Connector/J streams the rows one by one only when the fetch size is
+ * Integer.MIN_VALUE; with any other value it reads the whole result first. The export
+ * holds its connection until the last row is read, and the driver raises the server's
+ * net_write_timeout for it (netTimeoutForStreamingResults, 600 s by default).
+ */
+@Service
+public class CatalogExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private static final String EXPORT_SQL = """
+            SELECT p.id, p.name, p.description, p.price, p.stock, p.category,
+                   i.id, i.object_key, i.is_primary, i.order_index, i.content_type, i.size_bytes, i.width_px, i.height_px
+            FROM product p
+            LEFT JOIN product_images i ON i.product_id = p.id
+            ORDER BY p.id, i.order_index, i.id""";
+
+    private final ProductImageService productImageService;
+    private final JdbcTemplate exportJdbcTemplate;
+    private final ObjectWriter lineWriter;
+    private final int flushEvery;
+
+    @Autowired
+    public CatalogExportService(
+            ProductImageService productImageService,
+            DataSource dataSource,
+            ObjectMapper objectMapper,
+            @Value("${products.export.flush-every:100}") int flushEvery) {
+        this.productImageService = productImageService;
+        this.exportJdbcTemplate = new JdbcTemplate(dataSource);
+        this.exportJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.lineWriter = objectMapper.writerFor(CatalogExportLine.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.flushEvery = Math.max(1, flushEvery);
+    }
+
+    /**
+     * Writes the catalog to a stream, flushing before the query, after the first product
+     * and then every products.export.flush-every products. The stream is flushed but not closed.
+     *
+     * @param out The stream to write to
+     * @throws IOException if writing fails
+     */
+    public void export(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        // Send the response headers before the query runs
+        out.flush();
+        JsonGenerator generator = lineWriter.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated by the newline written after each product, not by a space
+        generator.setRootValueSeparator(null);
+        try (generator; ProductImageService.UrlGenerator urls = productImageService.urlGenerator()) {
+            LineWriter lines = new LineWriter(generator, urls);
+            try {
+                exportJdbcTemplate.query(EXPORT_SQL, lines);
+                lines.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.flush();
+            log.info("Exported {} products in {} ms", lines.written, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Collects the joined rows of one product and writes the product when the next one starts.
+     */
+    private final class LineWriter implements RowCallbackHandler {
+
+        private final JsonGenerator generator;
+        private final ProductImageService.UrlGenerator urls;
+
+        private long productId;
+        private String name;
+        private String description;
+        private double price;
+        private int stock;
+        private String category;
+        private List<ImageResponse> images;
+        private long written;
+
+        LineWriter(JsonGenerator generator, ProductImageService.UrlGenerator urls) {
+            this.generator = generator;
+            this.urls = urls;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (images == null || id != productId) {
+                finish();
+                productId = id;
+                name = rs.getString(2);
+                description = rs.getString(3);
+                price = rs.getDouble(4);
+                stock = rs.getInt(5);
+                category = rs.getString(6);
+                images = new ArrayList<>();
+            }
+            long imageId = rs.getLong(7);
+            if (!rs.wasNull()) {
+                images.add(new ImageResponse(
+                        imageId,
+                        urls.generateUrl(rs.getString(8)),
+                        rs.getBoolean(9),
+                        rs.getInt(10),
+                        rs.getString(11),
+                        rs.getLong(12),
+                        rs.getObject(13, Integer.class),
+                        rs.getObject(14, Integer.class)));
+            }
+        }
+
+        /**
+         * Writes the product collected so far, if any.
+         */
+        void finish() {
+            if (images == null) {
+                return;
+            }
+            try {
+                lineWriter.writeValue(generator, new CatalogExportLine(productId, name, description, price, stock, category, images));
+                generator.writeRaw('\n');
+                written++;
+                if (written == 1 || written % flushEvery == 0) {
+                    generator.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            images = null;
+        }
+    }
+}
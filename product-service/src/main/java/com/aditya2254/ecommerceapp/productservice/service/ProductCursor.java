@@ -0,0 +1,61 @@
+package com.aditya2254.ecommerceapp.productservice.service;
+
+import com.aditya2254.ecommerceapp.productservice.dto.ProductSort;
+import com.aditya2254.ecommerceapp.productservice.entity.Product;
+import com.aditya2254.ecommerceapp.productservice.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the product listing: the sort key and id of the last product of a page.
+ *
+ * The next page starts right after this position, so it is found with an index seek
+ * instead of skipping all earlier rows as OFFSET does. Clients get it as an opaque
+ * URL-safe token.
+ *
+ * @param sort the sort order the position belongs to
+ * @param price the price of the last product, used when sorting by price
+ * @param id the id of the last product
+ */
+public record ProductCursor(ProductSort sort, double price, long id) {
+
+    /**
+     * Creates the position of a product in a sort order.
+     *
+     * @param product the last product of a page
+     * @param sort the sort order of the page
+     * @return the position after which the next page starts
+     */
+    public static ProductCursor after(Product product, ProductSort sort) {
+        return new ProductCursor(sort, product.getPrice(), product.getId());
+    }
+
+    /**
+     * @return the token handed out to clients
+     */
+    public String encode() {
+        String raw = sort.name() + ':' + id + ':' + price;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a token produced by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the position
+     * @throws InvalidCursorException if the token is not a valid cursor
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3) {
+                throw new InvalidCursorException();
+            }
+            return new ProductCursor(ProductSort.valueOf(parts[0]), Double.parseDouble(parts[2]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+    }
+}
@@ -8,7 +8,10 @@ import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
@@ -46,6 +49,11 @@ import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequ
 @Service
 public class ProductImageService {
 
+    /**
+     * Most product IDs sent in one IN list; larger sets are queried in chunks.
+     */
+    static final int MAX_IDS_PER_QUERY = 1000;
+
     private final S3Client s3;
     private final ProductImageRepository repo;
 
@@ -64,10 +72,40 @@ public class ProductImageService {
     }
 
     public List<ImageResponse> list(Long productId) {
-        return repo.findByProductIdOrderByOrderIndexAscIdAsc(productId)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        try (UrlGenerator urls = new UrlGenerator()) {
+            return repo.findByProductIdOrderByOrderIndexAscIdAsc(productId)
+                    .stream()
+                    .map(img -> toResponse(img, urls))
+                    .toList();
+        }
+    }
+
+    /**
+     * Lists the images of several products with as few queries as possible.
+     *
+     * The IDs are sorted and read with one IN query per {@link #MAX_IDS_PER_QUERY} IDs,
+     * ordered by product and then as in {@link #list(Long)}, and grouped in memory. URLs
+     * are generated with one shared presigner instead of one per image.
+     *
+     * @param productIds The IDs of the products
+     * @return Images by product ID, in ascending product ID order; products without images are absent
+     */
+    public Map<Long, List<ImageResponse>> listByProductIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = productIds.stream().distinct().sorted().toList();
+        Map<Long, List<ImageResponse>> byProduct = new LinkedHashMap<>();
+        try (UrlGenerator urls = new UrlGenerator()) {
+            for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+                List<Long> chunk = ids.subList(from, Math.min(from + MAX_IDS_PER_QUERY, ids.size()));
+                for (ProductImage img : repo.findByProductIdInOrderByProductIdAscOrderIndexAscIdAsc(chunk)) {
+                    byProduct.computeIfAbsent(img.getProductId(), id -> new ArrayList<>())
+                            .add(toResponse(img, urls));
+                }
+            }
+        }
+        return byProduct;
     }
     
     /**
@@ -250,7 +288,13 @@ public class ProductImageService {
     }
 
     private ImageResponse toResponse(ProductImage img) {
-        String url = generateUrl(img.getObjectKey());
+        try (UrlGenerator urls = new UrlGenerator()) {
+            return toResponse(img, urls);
+        }
+    }
+
+    private ImageResponse toResponse(ProductImage img, UrlGenerator urls) {
+        String url = urls.generateUrl(img.getObjectKey());
         ImageResponse r = new ImageResponse(
                 img.getId(),
                 url,
@@ -264,39 +308,70 @@ public class ProductImageService {
     }
 
     /**
-     * Generate URL for object:
-     * - if publicBaseUrl configured, return publicBaseUrl + "/" + key
-     * - otherwise try to generate a presigned GET URL using S3Presigner with the configured TTL.
+     * Opens a URL generator for callers that build image URLs themselves, such as the
+     * catalog export. Close it when done.
+     *
+     * @return a new URL generator
      */
-    private String generateUrl(String key) {
-        if (publicBaseUrl != null && !publicBaseUrl.isBlank()) {
-            String base = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
-                    : publicBaseUrl;
-            return base + "/" + key;
-        }
-
-        // Attempt to presign using default S3Presigner (relies on environment configuration)
-        try (S3Presigner presigner = S3Presigner.create()) {
-            GetObjectRequest getReq = GetObjectRequest.builder()
-                    .bucket(bucket)
-                    .key(key)
-                    .build();
+    UrlGenerator urlGenerator() {
+        return new UrlGenerator();
+    }
 
-            GetObjectPresignRequest presignReq = GetObjectPresignRequest.builder()
-                    .getObjectRequest(getReq)
-                    .signatureDuration(signedTtl != null ? signedTtl : Duration.ofMinutes(15))
-                    .build();
+    /**
+     * Generates URLs for objects, sharing one S3Presigner between all of them.
+     *
+     * Creating a presigner resolves credentials and region, which costs far more than
+     * signing a URL, so it is created on first use and closed with the generator.
+     */
+    final class UrlGenerator implements AutoCloseable {
+
+        private S3Presigner presigner;
+
+        /**
+         * Generate URL for object:
+         * - if publicBaseUrl configured, return publicBaseUrl + "/" + key
+         * - otherwise try to generate a presigned GET URL using S3Presigner with the configured TTL.
+         */
+        String generateUrl(String key) {
+            if (publicBaseUrl != null && !publicBaseUrl.isBlank()) {
+                String base = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+                        : publicBaseUrl;
+                return base + "/" + key;
+            }
 
-            PresignedGetObjectRequest presigned = presigner.presignGetObject(presignReq);
-            URL url = presigned.url();
-            return url.toString();
-        } catch (Exception e) {
-            // As a last fallback (if presigner cannot be created), attempt to build a URL via S3Utilities
+            // Attempt to presign using default S3Presigner (relies on environment configuration)
             try {
-                URL url = s3.utilities().getUrl(builder -> builder.bucket(bucket).key(key).build());
+                if (presigner == null) {
+                    presigner = S3Presigner.create();
+                }
+                GetObjectRequest getReq = GetObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .build();
+
+                GetObjectPresignRequest presignReq = GetObjectPresignRequest.builder()
+                        .getObjectRequest(getReq)
+                        .signatureDuration(signedTtl != null ? signedTtl : Duration.ofMinutes(15))
+                        .build();
+
+                PresignedGetObjectRequest presigned = presigner.presignGetObject(presignReq);
+                URL url = presigned.url();
                 return url.toString();
-            } catch (Exception ex) {
-                throw new RuntimeException("failed to generate URL for object key: " + key, ex);
+            } catch (Exception e) {
+                // As a last fallback (if presigner cannot be created), attempt to build a URL via S3Utilities
+                try {
+                    URL url = s3.utilities().getUrl(builder -> builder.bucket(bucket).key(key).build());
+                    return url.toString();
+                } catch (Exception ex) {
+                    throw new RuntimeException("failed to generate URL for object key: " + key, ex);
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            if (presigner != null) {
+                presigner.close();
             }
         }
     }
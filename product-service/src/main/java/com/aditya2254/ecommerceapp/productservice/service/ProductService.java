@@ -1,13 +1,28 @@
 package com.aditya2254.ecommerceapp.productservice.service;
 
 import com.aditya2254.ecommerceapp.productservice.dto.ImageResponse;
+import com.aditya2254.ecommerceapp.productservice.dto.ProductPage;
+import com.aditya2254.ecommerceapp.productservice.dto.ProductSort;
 import com.aditya2254.ecommerceapp.productservice.entity.Product;
+import com.aditya2254.ecommerceapp.productservice.exceptions.InvalidCursorException;
 import com.aditya2254.ecommerceapp.productservice.exceptions.ProductNotFoundException;
 import com.aditya2254.ecommerceapp.productservice.repositories.ProductRepository;
+import com.aditya2254.ecommerceapp.productservice.repositories.ProductSpecifications;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,17 +30,36 @@ import java.util.Optional;
 
 /**
  * Service for handling product operations with image integration.
+ *
+ * Products looked up by ID are cached in memory, bounded by products.cache.max-size and
+ * products.cache.ttl. Every method that changes a product evicts it, once right away and
+ * again after its transaction has completed, so a read that slipped in before the commit
+ * cannot leave the old product cached. Hits and misses are published as "cache.*"
+ * metrics tagged with cache=products.
  */
 @Service
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final ProductImageService productImageService;
+    private final int maxPageSize;
+    private final Cache<Long, Product> productCache;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, ProductImageService productImageService) {
+    public ProductService(ProductRepository productRepository, ProductImageService productImageService,
+                          MeterRegistry meterRegistry,
+                          @Value("${products.page.max-size:100}") int maxPageSize,
+                          @Value("${products.cache.max-size:10000}") long cacheMaxSize,
+                          @Value("${products.cache.ttl:600000}") long cacheTtlMillis) {
         this.productRepository = productRepository;
         this.productImageService = productImageService;
+        this.maxPageSize = maxPageSize;
+        this.productCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productCache, "products");
     }
 
     /**
@@ -37,6 +71,57 @@ public class ProductService {
         return productRepository.findAll();
     }
 
+    /**
+     * Get one page of products, optionally filtered by category and price range.
+     *
+     * Pages use keyset pagination: the cursor holds the sort key and id of the last
+     * product of the previous page, and the next page is read with a condition on
+     * (sort key, id) instead of an OFFSET. Every page is therefore a short index range
+     * scan, no matter how deep into the listing it is, and no COUNT query is run.
+     * One extra row is fetched to know whether another page follows.
+     *
+     * @param category Category to filter by, or null for all categories
+     * @param minPrice Lowest price to include, or null
+     * @param maxPrice Highest price to include, or null
+     * @param sort Sort order, ascending
+     * @param limit Page size, capped at products.page.max-size
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @return the page and the cursor of the next one
+     * @throws InvalidCursorException if the cursor is malformed or from another sort order
+     */
+    public ProductPage getProductPage(String category, Double minPrice, Double maxPrice,
+                                      ProductSort sort, int limit, String cursor) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<Specification<Product>> conditions = new ArrayList<>();
+        if (category != null && !category.isBlank()) {
+            conditions.add(ProductSpecifications.inCategory(category));
+        }
+        if (minPrice != null) {
+            conditions.add(ProductSpecifications.priceAtLeast(minPrice));
+        }
+        if (maxPrice != null) {
+            conditions.add(ProductSpecifications.priceAtMost(maxPrice));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor after = ProductCursor.decode(cursor);
+            if (after.sort() != sort) {
+                throw new InvalidCursorException();
+            }
+            conditions.add(ProductSpecifications.after(sort, after.price(), after.id()));
+        }
+        Sort order = sort == ProductSort.ID
+                ? Sort.by("id")
+                : Sort.by(sort.getProperty()).and(Sort.by("id"));
+
+        List<Product> rows = productRepository.findBy(Specification.allOf(conditions),
+                query -> query.sortBy(order).limit(pageSize + 1).all());
+        if (rows.size() <= pageSize) {
+            return new ProductPage(rows, null);
+        }
+        List<Product> items = rows.subList(0, pageSize);
+        return new ProductPage(items, ProductCursor.after(items.get(pageSize - 1), sort).encode());
+    }
+
     /**
      * Get all products with their images.
      *
@@ -44,15 +129,12 @@ public class ProductService {
      */
     public Map<String, Object> getAllProductsWithImages() {
         List<Product> products = productRepository.findAll();
-        Map<Long, List<ImageResponse>> productImages = new HashMap<>();
 
-        // Fetch images for each product
-        for (Product product : products) {
-            List<ImageResponse> images = productImageService.list(product.getId());
-            if (!images.isEmpty()) {
-                productImages.put(product.getId(), images);
-            }
-        }
+        // Fetch the images of all products with one query
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .toList();
+        Map<Long, List<ImageResponse>> productImages = productImageService.listByProductIds(productIds);
 
         Map<String, Object> result = new HashMap<>();
         result.put("products", products);
@@ -61,13 +143,16 @@ public class ProductService {
     }
 
     /**
-     * Get a product by ID without images.
+     * Get a product by ID without images, from the cache when possible.
+     *
+     * The returned product may be shared with other callers and must not be modified.
      *
      * @param id Product ID
      * @return Optional containing the product if found
      */
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        // Misses are not cached, so a product added a moment later is found on the next call
+        return Optional.ofNullable(productCache.get(id, key -> productRepository.findById(key).orElse(null)));
     }
 
     /**
@@ -78,7 +163,7 @@ public class ProductService {
      * @throws ProductNotFoundException if the product is not found
      */
     public Map<String, Object> getProductWithImagesById(Long id) {
-        Product product = productRepository.findById(id)
+        Product product = getProductById(id)
                 .orElseThrow(ProductNotFoundException::new);
 
         List<ImageResponse> images = productImageService.list(id);
@@ -97,7 +182,9 @@ public class ProductService {
      */
     @Transactional
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        evict(saved.getId());
+        return saved;
     }
 
     /**
@@ -121,6 +208,7 @@ public class ProductService {
 
         // Delete the product
         productRepository.delete(product);
+        evict(id);
     }
 
     /**
@@ -137,7 +225,9 @@ public class ProductService {
                 .orElseThrow(ProductNotFoundException::new);
         
         product.setStock(stock);
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        evict(id);
+        return saved;
     }
 
     /**
@@ -159,6 +249,7 @@ public class ProductService {
         
         product.setStock(product.getStock() - quantity);
         productRepository.save(product);
+        evict(productId);
     }
 
     /**
@@ -175,5 +266,24 @@ public class ProductService {
         
         product.setStock(product.getStock() + quantity);
         productRepository.save(product);
+        evict(productId);
+    }
+
+    /**
+     * Remove a product from the cache now and, inside a transaction, again once it has
+     * completed.
+     *
+     * @param id Product ID
+     */
+    private void evict(Long id) {
+        productCache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    productCache.invalidate(id);
+                }
+            });
+        }
     }
 }
\ No newline at end of file
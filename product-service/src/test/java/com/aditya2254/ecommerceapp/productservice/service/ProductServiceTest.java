@@ -0,0 +1,187 @@
+package com.aditya2254.ecommerceapp.productservice.service;
+
+import com.aditya2254.ecommerceapp.productservice.dto.ImageResponse;
+import com.aditya2254.ecommerceapp.productservice.entity.Product;
+import com.aditya2254.ecommerceapp.productservice.entity.ProductImage;
+import com.aditya2254.ecommerceapp.productservice.repositories.ProductImageRepository;
+import com.aditya2254.ecommerceapp.productservice.repositories.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private ProductRepository productRepository;
+    private ProductImageRepository imageRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        imageRepository = mock(ProductImageRepository.class);
+        ProductImageService imageService = new ProductImageService(mock(S3Client.class), imageRepository);
+        ReflectionTestUtils.setField(imageService, "bucket", "images");
+        ReflectionTestUtils.setField(imageService, "publicBaseUrl", "https://cdn.example.com/");
+        meterRegistry = new SimpleMeterRegistry();
+        productService = new ProductService(productRepository, imageService, meterRegistry, 100, 1000, 60_000);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1000})
+    void getAllProductsWithImagesQueriesImagesOnce(int catalogSize) {
+        List<Product> products = new ArrayList<>();
+        List<ProductImage> images = new ArrayList<>();
+        for (long id = 1; id <= catalogSize; id++) {
+            products.add(product(id));
+            images.add(image(id * 10, id, 0, true));
+            images.add(image(id * 10 + 1, id, 1, false));
+        }
+        when(productRepository.findAll()).thenReturn(products);
+        when(imageRepository.findByProductIdInOrderByProductIdAscOrderIndexAscIdAsc(anyCollection()))
+                .thenReturn(images);
+
+        Map<String, Object> result = productService.getAllProductsWithImages();
+
+        verify(productRepository, times(1)).findAll();
+        verify(imageRepository, times(1)).findByProductIdInOrderByProductIdAscOrderIndexAscIdAsc(anyCollection());
+        verifyNoMoreInteractions(productRepository, imageRepository);
+
+        @SuppressWarnings("unchecked")
+        Map<Long, List<ImageResponse>> imagesByProduct = (Map<Long, List<ImageResponse>>) result.get("images");
+        assertEquals(catalogSize, imagesByProduct.size());
+        assertEquals(2, imagesByProduct.get(1L).size());
+    }
+
+    @Test
+    void getAllProductsWithImagesGroupsImagesByProductInOrder() {
+        when(productRepository.findAll()).thenReturn(List.of(product(1), product(2), product(3)));
+        when(imageRepository.findByProductIdInOrderByProductIdAscOrderIndexAscIdAsc(anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<Long> ids = invocation.getArgument(0);
+                    assertEquals(List.of(1L, 2L, 3L), List.copyOf(ids));
+                    return List.of(image(10, 1, 0, true), image(11, 1, 1, false), image(30, 3, 0, true));
+                });
+
+        @SuppressWarnings("unchecked")
+        Map<Long, List<ImageResponse>> imagesByProduct =
+                (Map<Long, List<ImageResponse>>) productService.getAllProductsWithImages().get("images");
+
+        assertEquals(List.of(10L, 11L), imagesByProduct.get(1L).stream().map(ImageResponse::id).toList());
+        assertEquals("https://cdn.example.com/products/1/10.png", imagesByProduct.get(1L).get(0).url());
+        assertTrue(imagesByProduct.get(1L).get(0).primary());
+        assertFalse(imagesByProduct.containsKey(2L));
+        assertEquals(List.of(30L), imagesByProduct.get(3L).stream().map(ImageResponse::id).toList());
+    }
+
+    @Test
+    void getAllProductsWithImagesQueriesLargeCatalogsInChunks() {
+        int catalogSize = ProductImageService.MAX_IDS_PER_QUERY * 2 + 1;
+        List<Product> products = new ArrayList<>();
+        for (long id = catalogSize; id >= 1; id--) {
+            products.add(product(id));
+        }
+        List<List<Long>> queried = new ArrayList<>();
+        when(productRepository.findAll()).thenReturn(products);
+        when(imageRepository.findByProductIdInOrderByProductIdAscOrderIndexAscIdAsc(anyCollection()))
+                .thenAnswer(invocation -> {
+                    List<Long> ids = List.copyOf(invocation.<Collection<Long>>getArgument(0));
+                    queried.add(ids);
+                    return ids.stream().map(id -> image(id * 10, id, 0, true)).toList();
+                });
+
+        @SuppressWarnings("unchecked")
+        Map<Long, List<ImageResponse>> imagesByProduct =
+                (Map<Long, List<ImageResponse>>) productService.getAllProductsWithImages().get("images");
+
+        assertEquals(List.of(ProductImageService.MAX_IDS_PER_QUERY, ProductImageService.MAX_IDS_PER_QUERY, 1),
+                queried.stream().map(List::size).toList());
+        assertEquals(1L, queried.get(0).get(0));
+        assertEquals(catalogSize, imagesByProduct.size());
+        assertEquals(1L, imagesByProduct.keySet().iterator().next());
+    }
+
+    @Test
+    void getAllProductsWithImagesSkipsImageQueryForEmptyCatalog() {
+        when(productRepository.findAll()).thenReturn(List.of());
+
+        Map<String, Object> result = productService.getAllProductsWithImages();
+
+        assertEquals(Map.of(), result.get("images"));
+        verifyNoMoreInteractions(imageRepository);
+    }
+
+    @Test
+    void getProductByIdReadsTheDatabaseOnlyOnce() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product(1)));
+
+        assertEquals("Product 1", productService.getProductById(1L).orElseThrow().getName());
+        assertEquals("Product 1", productService.getProductById(1L).orElseThrow().getName());
+
+        verify(productRepository, times(1)).findById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getProductByIdDoesNotCacheMissingProducts() {
+        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(productService.getProductById(1L).isEmpty());
+        assertTrue(productService.getProductById(1L).isEmpty());
+
+        verify(productRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void updateStockEvictsTheCachedProduct() {
+        Product cached = product(1);
+        Product updated = product(1);
+        updated.setStock(2);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(cached), Optional.of(product(1)), Optional.of(updated));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        productService.getProductById(1L);
+        productService.updateStock(1L, 2);
+
+        assertEquals(2, productService.getProductById(1L).orElseThrow().getStock());
+        verify(productRepository, times(3)).findById(1L);
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(10.0 + id);
+        product.setStock(5);
+        product.setCategory("test");
+        return product;
+    }
+
+    private static ProductImage image(long id, long productId, int orderIndex, boolean primary) {
+        return new ProductImage(id, productId, "products/" + productId + "/" + id + ".png", id + ".png",
+                "image/png", 1024, 100, 100, primary, orderIndex, Instant.EPOCH);
+    }
+}
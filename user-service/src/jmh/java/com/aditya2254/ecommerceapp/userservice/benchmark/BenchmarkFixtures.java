@@ -0,0 +1,166 @@
+package com.aditya2254.ecommerceapp.userservice.benchmark;
+
+import com.aditya2254.ecommerceapp.userservice.entity.Role;
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.repository.RefreshTokenRepository;
+import com.aditya2254.ecommerceapp.userservice.repository.UserRepository;
+import com.aditya2254.ecommerceapp.userservice.service.JwtService;
+import com.aditya2254.ecommerceapp.userservice.service.SigningKeyStore;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared setup for the benchmarks, so none of them needs a Spring context or MySQL.
+ *
+ * Services are created directly, with their injected fields set by reflection, and the
+ * repositories are in-memory stand-ins: dynamic proxies that answer the lookups the
+ * benchmarked paths make and return empty results for everything else.
+ */
+final class BenchmarkFixtures {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Creates a JwtService with a freshly generated RSA key.
+     *
+     * @param algorithm "RS256" or "HS256", the algorithm new tokens are signed with
+     * @return the initialized service, accepting legacy HS256 tokens as well
+     */
+    static JwtService jwtService(String algorithm) {
+        return jwtService(algorithm, newSigningKeyStore());
+    }
+
+    /**
+     * Creates a JwtService that signs with the given key store.
+     *
+     * @param algorithm "RS256" or "HS256"
+     * @param signingKeyStore the loaded key store
+     * @return the initialized service
+     */
+    static JwtService jwtService(String algorithm, SigningKeyStore signingKeyStore) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", TimeUnit.MINUTES.toMillis(15));
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", TimeUnit.DAYS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "signingAlgorithm", algorithm);
+        ReflectionTestUtils.setField(jwtService, "acceptLegacyHs256", true);
+        ReflectionTestUtils.setField(jwtService, "signingKeyStore", signingKeyStore);
+        jwtService.init();
+        return jwtService;
+    }
+
+    /**
+     * @return a key store with a generated, not persisted RSA key
+     */
+    static SigningKeyStore newSigningKeyStore() {
+        SigningKeyStore signingKeyStore = new SigningKeyStore("", "");
+        signingKeyStore.load();
+        return signingKeyStore;
+    }
+
+    /**
+     * @return the user all benchmarks authenticate as
+     */
+    static User user() {
+        return User.builder()
+                .id(42L)
+                .username("bench-user")
+                .email("bench@example.com")
+                .password("unused")
+                .role(Role.ROLE_USER)
+                .build();
+    }
+
+    /**
+     * Builds the claims AuthService adds to an access token at login.
+     *
+     * @param user the user the token is for
+     * @return a mutable claims map with a new family id
+     */
+    static Map<String, Object> accessTokenClaims(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ParsedToken.CLAIM_USER_ID, user.getId());
+        claims.put(ParsedToken.CLAIM_EMAIL, user.getEmail());
+        claims.put(ParsedToken.CLAIM_ROLES, List.of(user.getRole().name()));
+        claims.put(ParsedToken.CLAIM_FAMILY, UUID.randomUUID().toString());
+        return claims;
+    }
+
+    /**
+     * Creates a UserRepository that finds the given users by username and nothing else.
+     *
+     * @param users the users to serve
+     * @return the in-memory repository
+     */
+    static UserRepository userRepository(User... users) {
+        Map<String, User> byUsername = new HashMap<>();
+        for (User user : users) {
+            byUsername.put(user.getUsername(), user);
+        }
+        return inMemory(UserRepository.class, (method, args) ->
+                "findByUsername".equals(method) ? Optional.ofNullable(byUsername.get((String) args[0])) : null);
+    }
+
+    /**
+     * Creates a RefreshTokenRepository without any tokens, so nothing is ever revoked.
+     *
+     * @return the in-memory repository
+     */
+    static RefreshTokenRepository emptyRefreshTokenRepository() {
+        return inMemory(RefreshTokenRepository.class, (method, args) -> null);
+    }
+
+    /**
+     * Answers a repository call, or returns null to fall back to an empty result.
+     */
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    private static <T> T inMemory(Class<T> repository, Answer answer) {
+        Object proxy = Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (instance, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> instance == args[0];
+                            case "hashCode" -> System.identityHashCode(instance);
+                            default -> repository.getSimpleName() + " stand-in";
+                        };
+                    }
+                    Object result = answer.answer(method.getName(), args);
+                    return result != null ? result : emptyResult(method.getReturnType());
+                });
+        return repository.cast(proxy);
+    }
+
+    private static Object emptyResult(Class<?> type) {
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (type == List.class || type == Collection.class || type == Iterable.class) {
+            return List.of();
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        if (type == int.class || type == Integer.class) {
+            return 0;
+        }
+        if (type == long.class || type == Long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.aditya2254.ecommerceapp.userservice.benchmark;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.filter.JwtAuthFilter;
+import com.aditya2254.ecommerceapp.userservice.service.JwtService;
+import com.aditya2254.ecommerceapp.userservice.service.OpaqueTokenStore;
+import com.aditya2254.ecommerceapp.userservice.service.RefreshTokenService;
+import com.aditya2254.ecommerceapp.userservice.service.UserDetailsCache;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second through JwtAuthFilter, from the Authorization header to the
+ * authentication being set, for a request the filter accepts.
+ *
+ * The filter is invoked through its public doFilter, which runs doFilterInternal once per
+ * request. The filter chain is a stand-in that only reads the authentication the filter
+ * set, so the numbers contain no servlet container time. Access tokens issued at login
+ * carry the user's roles, so the filter builds the principal from the claims; the
+ * UserDetailsCache over an in-memory repository is only there to satisfy the constructor.
+ *
+ * {@code token} selects the kind of bearer token: an RS256 or HS256 access token as issued
+ * at login (including the family claim, so the revocation check runs), or an opaque token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(4)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"RS256", "HS256", "opaque"})
+    public String token;
+
+    private JwtAuthFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setUp() throws Exception {
+        boolean opaque = "opaque".equals(token);
+        JwtService jwtService = BenchmarkFixtures.jwtService(opaque ? "RS256" : token);
+        User user = BenchmarkFixtures.user();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        UserDetailsCache userDetailsCache = new UserDetailsCache(
+                BenchmarkFixtures.userRepository(user), meterRegistry, 10_000, TimeUnit.MINUTES.toMillis(5));
+        RefreshTokenService refreshTokenService = new RefreshTokenService(
+                BenchmarkFixtures.emptyRefreshTokenRepository(), jwtService, 1_000_000, 0.001);
+        refreshTokenService.init();
+        OpaqueTokenStore opaqueTokenStore = new OpaqueTokenStore(64, "", meterRegistry);
+        filter = new JwtAuthFilter(jwtService, userDetailsCache, refreshTokenService, opaqueTokenStore);
+
+        Map<String, Object> claims = BenchmarkFixtures.accessTokenClaims(user);
+        String bearer = opaque
+                ? opaqueTokenStore.create(user, (String) claims.get(ParsedToken.CLAIM_FAMILY), TimeUnit.HOURS.toMillis(1))
+                : jwtService.generateToken(claims, user);
+        authorizationHeader = "Bearer " + bearer;
+
+        Request check = new Request();
+        check.setUp(this);
+        if (doFilter(check) == null) {
+            throw new IllegalStateException("The filter did not authenticate the " + token + " token");
+        }
+    }
+
+    /**
+     * One request per thread, reused across invocations like a pooled container request.
+     */
+    @State(Scope.Thread)
+    public static class Request {
+        MockHttpServletRequest request;
+        MockHttpServletResponse response;
+        Authentication authentication;
+        FilterChain chain;
+
+        @Setup(Level.Trial)
+        public void setUp(JwtAuthFilterBenchmark benchmark) {
+            request = new MockHttpServletRequest("GET", "/api/users/profile");
+            request.setServletPath("/api/users/profile");
+            request.addHeader("Authorization", benchmark.authorizationHeader);
+            response = new MockHttpServletResponse();
+            chain = (req, res) -> authentication = SecurityContextHolder.getContext().getAuthentication();
+        }
+    }
+
+    @Benchmark
+    public Authentication doFilter(Request state) throws ServletException, IOException {
+        state.authentication = null;
+        try {
+            filter.doFilter(state.request, state.response, state.chain);
+            return state.authentication;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
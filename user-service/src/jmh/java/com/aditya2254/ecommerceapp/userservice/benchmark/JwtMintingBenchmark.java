@@ -0,0 +1,126 @@
+package com.aditya2254.ecommerceapp.userservice.benchmark;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.service.JwtService;
+import com.aditya2254.ecommerceapp.userservice.service.SigningKeyStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens minted per second on a single thread, i.e. per core.
+ *
+ * {@code jjwtBuilder} reproduces the previous JwtService path: a fresh claims map, Date
+ * objects and a full jjwt builder for every token. {@code minter} is the current path
+ * through JwtService and JwtMinter. Both mint an access token with the claims AuthService
+ * adds at login.
+ *
+ * The setup parses one token from each path and fails if their headers or claims differ,
+ * apart from the timestamps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(1)
+public class JwtMintingBenchmark {
+
+    @Param({"RS256", "HS256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private SigningKeyStore signingKeyStore;
+    private User user;
+    private Map<String, Object> claims;
+
+    @Setup
+    public void setUp() {
+        signingKeyStore = BenchmarkFixtures.newSigningKeyStore();
+        jwtService = BenchmarkFixtures.jwtService(algorithm, signingKeyStore);
+        user = BenchmarkFixtures.user();
+        claims = BenchmarkFixtures.accessTokenClaims(user);
+
+        verifySameSemantics(jjwtBuilder(), minter());
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        JwtBuilder builder = Jwts.builder()
+                .setClaims(new HashMap<>(claims))
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(15)));
+        if ("HS256".equals(algorithm)) {
+            return builder.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.SECRET)), SignatureAlgorithm.HS256)
+                    .compact();
+        }
+        SigningKeyStore.SigningKey activeKey = signingKeyStore.getActiveKey();
+        return builder.setHeaderParam(JwsHeader.KEY_ID, activeKey.kid())
+                .signWith(activeKey.privateKey(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String minter() {
+        return jwtService.generateToken(claims, user);
+    }
+
+    private void verifySameSemantics(String expected, String actual) {
+        JwsHeader<?> expectedHeader = Jwts.parserBuilder().setSigningKeyResolver(keyResolver()).build()
+                .parseClaimsJws(expected).getHeader();
+        JwsHeader<?> actualHeader = Jwts.parserBuilder().setSigningKeyResolver(keyResolver()).build()
+                .parseClaimsJws(actual).getHeader();
+        if (!expectedHeader.equals(actualHeader)) {
+            throw new IllegalStateException("Headers differ: " + expectedHeader + " vs " + actualHeader);
+        }
+        Claims expectedClaims = jwtService.parseToken(expected).getClaims();
+        Claims actualClaims = jwtService.parseToken(actual).getClaims();
+        Map<String, Object> expectedValues = new HashMap<>(expectedClaims);
+        Map<String, Object> actualValues = new HashMap<>(actualClaims);
+        for (String timestamp : List.of(Claims.ISSUED_AT, Claims.EXPIRATION)) {
+            expectedValues.remove(timestamp);
+            actualValues.remove(timestamp);
+        }
+        if (!expectedValues.equals(actualValues)) {
+            throw new IllegalStateException("Claims differ: " + expectedValues + " vs " + actualValues);
+        }
+    }
+
+    private SigningKeyResolver keyResolver() {
+        return new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return header.getKeyId() != null
+                        ? signingKeyStore.getVerificationKey(header.getKeyId())
+                        : Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.SECRET));
+            }
+        };
+    }
+}
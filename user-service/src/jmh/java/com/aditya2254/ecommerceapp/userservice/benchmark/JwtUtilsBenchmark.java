@@ -0,0 +1,68 @@
+package com.aditya2254.ecommerceapp.userservice.benchmark;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.util.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operations per second of JwtUtils, the HS256-only helper next to JwtService.
+ *
+ * {@code generateToken} signs a token without extra claims, {@code extractUsername} parses
+ * one and reads its subject, and {@code isTokenValid} is the full check, which parses the
+ * token twice (subject, then expiry).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(4)
+public class JwtUtilsBenchmark {
+
+    private JwtUtils jwtUtils;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secretKey", BenchmarkFixtures.SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpiration", TimeUnit.HOURS.toMillis(1));
+        jwtUtils.init();
+
+        user = BenchmarkFixtures.user();
+        token = jwtUtils.generateToken(user);
+        if (!jwtUtils.isTokenValid(token, user)) {
+            throw new IllegalStateException("JwtUtils rejected its own token");
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtils.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtils.isTokenValid(token, user);
+    }
+}
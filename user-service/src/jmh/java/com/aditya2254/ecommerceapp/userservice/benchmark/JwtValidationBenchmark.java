@@ -0,0 +1,98 @@
+package com.aditya2254.ecommerceapp.userservice.benchmark;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.service.JwtService;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating the bearer token of one request, as JwtAuthFilter does it.
+ *
+ * {@code legacy} reproduces the previous behaviour: the secret is base64-decoded into a
+ * new key and a new parser is built for every parse, and the token is parsed three times
+ * (username, then username and expiry again inside isTokenValid). {@code cachedKeyParseThrice}
+ * keeps the three parses but uses the precomputed key and shared parser, and
+ * {@code cachedKeyParseOnce} is the current filter path.
+ *
+ * {@code algorithm} selects how the JwtService signs the token: RS256 with a kid (the
+ * default) or the legacy HS256 secret. {@code legacy} always uses an HS256 token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@Threads(4)
+public class JwtValidationBenchmark {
+
+    @Param({"RS256", "HS256"})
+    public String algorithm;
+
+    private JwtService jwtService;
+    private User user;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = BenchmarkFixtures.jwtService(algorithm);
+        user = BenchmarkFixtures.user();
+        token = jwtService.generateToken(user);
+        legacyToken = Jwts.builder()
+                .setSubject(user.getUsername())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.SECRET)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String username = legacyClaims(legacyToken).getSubject();
+        return username.equals(user.getUsername())
+                && legacyClaims(legacyToken).getSubject().equals(user.getUsername())
+                && !legacyClaims(legacyToken).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean cachedKeyParseThrice() {
+        String username = jwtService.extractUsername(token);
+        return username.equals(user.getUsername())
+                && jwtService.extractUsername(token).equals(user.getUsername())
+                && !jwtService.isTokenExpired(token);
+    }
+
+    @Benchmark
+    public boolean cachedKeyParseOnce() {
+        ParsedToken parsedToken = jwtService.parseToken(token);
+        return jwtService.isTokenValid(parsedToken, user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.SECRET)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
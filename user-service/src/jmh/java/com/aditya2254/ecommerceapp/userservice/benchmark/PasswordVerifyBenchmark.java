@@ -0,0 +1,81 @@
+package com.aditya2254.ecommerceapp.userservice.benchmark;
+
+import com.aditya2254.ecommerceapp.userservice.util.AdaptiveBCryptPasswordEncoder;
+import com.aditya2254.ecommerceapp.userservice.util.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password verifications per second at several BCrypt costs, i.e. the verify phase of a
+ * login.
+ *
+ * {@code bcrypt} calls the BCrypt encoder directly on the benchmark thread.
+ * {@code bounded} goes through BoundedPasswordEncoder as login does, adding the hand-off
+ * to and from the hashing executor (one thread per core, as configured by default).
+ *
+ * Each step of {@code strength} doubles the work, so the cost measured here is what
+ * password-hashing.target-latency is compared against when the cost is calibrated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(1)
+public class PasswordVerifyBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "12", "14"})
+    public int strength;
+
+    private AdaptiveBCryptPasswordEncoder bcrypt;
+    private BoundedPasswordEncoder bounded;
+    private ThreadPoolExecutor executor;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new AdaptiveBCryptPasswordEncoder(strength);
+        int threads = Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), new ThreadPoolExecutor.AbortPolicy());
+        bounded = new BoundedPasswordEncoder(bcrypt, executor, new SimpleMeterRegistry());
+        hash = bcrypt.encode(PASSWORD);
+        if (!bounded.matches(PASSWORD, hash)) {
+            throw new IllegalStateException("Password did not verify");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean bcrypt() {
+        return bcrypt.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean bounded() {
+        return bounded.matches(PASSWORD, hash);
+    }
+}
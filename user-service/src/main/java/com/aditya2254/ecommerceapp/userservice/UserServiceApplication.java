@@ -2,6 +2,7 @@ package com.aditya2254.ecommerceapp.userservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main entry point for the User Service application.
@@ -14,12 +15,16 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * - @ComponentScan: Tells Spring to look for other components, configurations, and services
  *   in the com.aditya2254.ecommerceapp.userservice package
  * 
+ * The @EnableScheduling annotation enables @Scheduled methods, used for periodic
+ * housekeeping such as evicting idle login-throttle entries.
+ * 
  * In a microservice architecture, this service handles user-related operations such as:
  * - User registration and authentication
  * - User profile management
  * - Role-based authorization
  */
 @SpringBootApplication
+@EnableScheduling
 public class UserServiceApplication {
 
     /**
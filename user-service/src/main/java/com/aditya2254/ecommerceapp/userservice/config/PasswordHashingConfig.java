@@ -0,0 +1,129 @@
+package com.aditya2254.ecommerceapp.userservice.config;
+
+import com.aditya2254.ecommerceapp.userservice.util.AdaptiveBCryptPasswordEncoder;
+import com.aditya2254.ecommerceapp.userservice.util.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuration for password hashing.
+ *
+ * Password hashing and verification (registration and login) run on a dedicated
+ * thread pool instead of on Tomcat request threads, see BoundedPasswordEncoder.
+ *
+ * The pool is sized by password-hashing.threads, which defaults to the number of
+ * available processors. Its queue holds at most password-hashing.queue-capacity
+ * waiting operations. Anything beyond that is rejected straight away with HTTP 503.
+ *
+ * The BCrypt cost is password-hashing.strength. When it is 0 (the default), the cost is
+ * calibrated at startup so that one hash takes about password-hashing.target-latency
+ * milliseconds on this machine, within password-hashing.min-strength and
+ * password-hashing.max-strength. Stored hashes with a different cost are rehashed on the
+ * user's next successful login, see AuthService. A calibrated cost differs a little
+ * between machines and restarts, so it leaves hashes alone that are at most
+ * password-hashing.rehash-tolerance steps weaker or anywhere up to the maximum stronger;
+ * instances that calibrate differently then do not rehash each other's hashes forever.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Creates the executor that runs all password hashing.
+     *
+     * The executor has a fixed size, a bounded queue and an AbortPolicy, so a full
+     * queue fails fast instead of blocking the caller.
+     *
+     * @param threads number of hashing threads
+     * @param queueCapacity maximum number of operations waiting for a thread
+     * @param meterRegistry registry for the executor's pool metrics
+     * @return the hashing executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor(
+            @Value("${password-hashing.threads:0}") int threads,
+            @Value("${password-hashing.queue-capacity:64}") int queueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                hashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+        return executor;
+    }
+
+    /**
+     * Creates the BCrypt encoder with the configured or calibrated cost.
+     *
+     * It hashes on the calling thread. Registration and login use the bounded
+     * passwordEncoder bean instead; this one is for callers with their own threads,
+     * such as the bulk user import.
+     *
+     * @param strength fixed BCrypt cost, or 0 to calibrate
+     * @param targetLatency target time per hash in milliseconds, used when calibrating
+     * @param minStrength lowest cost calibration may choose
+     * @param maxStrength highest cost calibration may choose
+     * @param rehashTolerance how many cost steps below the calibrated cost are not rehashed
+     * @return the BCrypt encoder
+     */
+    @Bean
+    public AdaptiveBCryptPasswordEncoder bcryptPasswordEncoder(
+            @Value("${password-hashing.strength:0}") int strength,
+            @Value("${password-hashing.target-latency:250}") long targetLatency,
+            @Value("${password-hashing.min-strength:10}") int minStrength,
+            @Value("${password-hashing.max-strength:14}") int maxStrength,
+            @Value("${password-hashing.rehash-tolerance:1}") int rehashTolerance
+    ) {
+        if (strength > 0) {
+            return new AdaptiveBCryptPasswordEncoder(strength);
+        }
+        int cost = AdaptiveBCryptPasswordEncoder.calibrate(Duration.ofMillis(targetLatency), minStrength, maxStrength);
+        int minAccepted = Math.min(cost, Math.max(minStrength, cost - Math.max(0, rehashTolerance)));
+        return new AdaptiveBCryptPasswordEncoder(cost, minAccepted, Math.max(cost, maxStrength));
+    }
+
+    /**
+     * Creates the password encoder used for registration and login.
+     *
+     * BCrypt does the hashing; the bounded wrapper moves it onto the hashing executor.
+     *
+     * @param bcryptPasswordEncoder the BCrypt encoder
+     * @param passwordHashingExecutor the hashing executor
+     * @param meterRegistry registry for queue-wait and hash-time metrics
+     * @return the password encoder
+     */
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder(AdaptiveBCryptPasswordEncoder bcryptPasswordEncoder,
+                                           ThreadPoolExecutor passwordHashingExecutor,
+                                           MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(bcryptPasswordEncoder, passwordHashingExecutor, meterRegistry);
+    }
+
+    private static ThreadFactory hashingThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,26 +1,29 @@
 package com.aditya2254.ecommerceapp.userservice.config;
 
+import com.aditya2254.ecommerceapp.userservice.controller.InternalUserController;
 import com.aditya2254.ecommerceapp.userservice.filter.JwtAuthFilter;
 import com.aditya2254.ecommerceapp.userservice.util.CustomAccessDeniedHandler;
 import com.aditya2254.ecommerceapp.userservice.util.CustomAuthenticationEntryPoint;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+
 /**
  * Configuration class for Spring Security.
  * 
@@ -49,16 +52,17 @@ public class SecurityConfig {
      */
     private final JwtAuthFilter authFilter;
 
-    /**
-     * Service for loading user details from the database.
-     * This is used by the authentication provider to authenticate users.
-     */
-    private final UserDetailsService userDetailsService;
-
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
 
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
 
+    /**
+     * Shared secret other services present to call the internal API. When it is empty the
+     * internal API rejects every request.
+     */
+    @Value("${internal-api.token:}")
+    private String internalApiToken;
+
     /**
      * Configures the security filter chain.
      * 
@@ -81,15 +85,17 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         // Allow public access to authentication endpoints
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Administrative user operations, checked before the public /api/users/**
+                        .requestMatchers("/api/users/admin/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/api/users/**").permitAll()
+                        // Service-to-service API, only for callers presenting the internal API token
+                        .requestMatchers("/internal/**").access(this::checkInternalApiToken)
                         // Require authentication for all other endpoints
                         .anyRequest().authenticated()
                 )
                 // Configure session management to be stateless (no session)
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                // Set the authentication provider
-                .authenticationProvider(authenticationProvider())
                 // Add the JWT filter before the standard authentication filter
                 .addFilterBefore(authFilter, UsernamePasswordAuthenticationFilter.class)
                 .exceptionHandling(handling -> handling
@@ -100,48 +106,38 @@ public class SecurityConfig {
     }
 
     /**
-     * Creates a password encoder bean for securely hashing passwords.
-     * 
-     * BCrypt is a strong hashing function designed for passwords.
-     * It automatically handles salt generation and verification.
-     * 
-     * @return a BCryptPasswordEncoder instance
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    /**
-     * Creates an authentication provider bean.
+     * Grants access to the internal API when the request carries the internal API token.
      * 
-     * The DaoAuthenticationProvider is a standard authentication provider that
-     * uses a UserDetailsService to load user details and a PasswordEncoder to
-     * verify passwords.
+     * The token is compared in constant time, so response times do not reveal how much
+     * of a guessed token is right.
      * 
-     * @return a configured DaoAuthenticationProvider
+     * @param authentication the current authentication (not used; callers are services)
+     * @param context the request being authorized
+     * @return a granting decision if the token matches
      */
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+    private AuthorizationDecision checkInternalApiToken(
+            Supplier<Authentication> authentication,
+            RequestAuthorizationContext context
+    ) {
+        String presented = context.getRequest().getHeader(InternalUserController.SERVICE_TOKEN_HEADER);
+        boolean granted = !internalApiToken.isBlank() && presented != null
+                && MessageDigest.isEqual(
+                        presented.getBytes(StandardCharsets.UTF_8),
+                        internalApiToken.getBytes(StandardCharsets.UTF_8));
+        return new AuthorizationDecision(granted);
     }
 
     /**
-     * Creates an authentication manager bean.
+     * Excludes the token validation endpoint from the security filter chain.
      * 
-     * The authentication manager is used to authenticate users during the login process.
-     * It delegates to the authentication provider configured above.
+     * GET /api/auth/validate is called by the API gateway for many requests and verifies
+     * the token itself, so running it through the security filters (and the JwtAuthFilter
+     * lookups) would only duplicate that work.
      * 
-     * @param config the authentication configuration
-     * @return the authentication manager
-     * @throws Exception if an error occurs during configuration
+     * @return the customizer ignoring the validation endpoint
      */
     @Bean
-    public AuthenticationManager authenticationManager(
-            AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(JwtAuthFilter.VALIDATE_PATH);
     }
 }
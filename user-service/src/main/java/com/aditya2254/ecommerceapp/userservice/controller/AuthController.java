@@ -2,16 +2,31 @@ package com.aditya2254.ecommerceapp.userservice.controller;
 
 import com.aditya2254.ecommerceapp.userservice.dto.AuthRequest;
 import com.aditya2254.ecommerceapp.userservice.dto.AuthResponse;
+import com.aditya2254.ecommerceapp.userservice.dto.AvailabilityResponse;
 import com.aditya2254.ecommerceapp.userservice.dto.RefreshTokenRequest;
 import com.aditya2254.ecommerceapp.userservice.dto.RegisterRequest;
+import com.aditya2254.ecommerceapp.userservice.dto.UserDTO;
+import com.aditya2254.ecommerceapp.userservice.exceptions.InvalidTokenException;
 import com.aditya2254.ecommerceapp.userservice.service.AuthService;
+import com.aditya2254.ecommerceapp.userservice.service.SigningKeyStore;
+import com.aditya2254.ecommerceapp.userservice.service.UserAvailabilityService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * REST controller for handling authentication-related HTTP requests.
  * 
@@ -39,6 +54,23 @@ public class AuthController {
      */
     private final AuthService authService;
 
+    /**
+     * Store of the keys tokens are signed with, published as a JWKS.
+     */
+    private final SigningKeyStore signingKeyStore;
+
+    /**
+     * Service answering username and email availability checks.
+     */
+    private final UserAvailabilityService userAvailabilityService;
+
+    /**
+     * Number of proxies in front of this service that append to X-Forwarded-For
+     * (normally just the API gateway). 0 ignores the header.
+     */
+    @Value("${login-throttle.trusted-proxies:1}")
+    private int trustedProxies;
+
     /**
      * Endpoint for registering a new user.
      * 
@@ -67,27 +99,32 @@ public class AuthController {
      * 
      * URL: POST /api/auth/login
      * 
+     * Repeated failures for the same username or from the same client IP are throttled
+     * with HTTP 429 (see LoginThrottle).
+     * 
      * @param request the authentication request containing user credentials
+     * @param httpRequest the HTTP request, used to determine the client IP
      * @return a ResponseEntity containing the authentication tokens (access and refresh)
      */
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> authenticate(
-            @RequestBody AuthRequest request
+            @RequestBody AuthRequest request,
+            HttpServletRequest httpRequest
     ) {
-        return ResponseEntity.ok(authService.authenticate(request));
+        return ResponseEntity.ok(authService.authenticate(request, clientIp(httpRequest)));
     }
 
     /**
      * Endpoint for refreshing an access token.
      * 
      * This endpoint accepts a POST request with a JSON body containing a refresh token.
-     * It delegates to the AuthService to validate the refresh token and generate a new
-     * access token.
+     * It delegates to the AuthService to validate and rotate the refresh token and
+     * generate a new access token. The presented refresh token cannot be used again.
      * 
      * URL: POST /api/auth/refresh
      * 
      * @param request the refresh token request
-     * @return a ResponseEntity containing the new access token and the same refresh token
+     * @return a ResponseEntity containing the new access token and the new refresh token
      */
     @PostMapping("/refresh")
     public ResponseEntity<AuthResponse> refreshToken(
@@ -95,4 +132,129 @@ public class AuthController {
     ) {
         return ResponseEntity.ok(authService.refreshToken(request.getRefreshToken()));
     }
+
+    /**
+     * Endpoint for logging out.
+     * 
+     * This endpoint accepts a POST request with a JSON body containing a refresh token
+     * and revokes the session (refresh token family) it belongs to. If the current access
+     * token is sent in the Authorization header and is opaque, it is revoked as well.
+     * 
+     * URL: POST /api/auth/logout
+     * 
+     * @param request the refresh token request
+     * @param authorization the Authorization header, "Bearer <access token>", optional
+     * @return an empty ResponseEntity with status 204
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestBody RefreshTokenRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(request.getRefreshToken(), accessToken);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Endpoint for validating an access token.
+     * 
+     * This endpoint accepts a GET request with the token in the Authorization header and
+     * returns the id, username, email and roles of its user. It is called by the API
+     * gateway for requests it cannot verify locally, so it is kept as cheap as possible:
+     * it bypasses the security filter chain, verifies the token with the cached parser and
+     * answers from the token claims without a database query.
+     * 
+     * URL: GET /api/auth/validate
+     * 
+     * @param authorization the Authorization header, "Bearer <token>"
+     * @return a ResponseEntity containing the user of the token, or 401 if it is not valid
+     */
+    @GetMapping("/validate")
+    public ResponseEntity<UserDTO> validate(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            throw new InvalidTokenException("Missing bearer token");
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(authService.validateAccessToken(authorization.substring(7)));
+    }
+
+    /**
+     * Endpoint publishing the public keys that verify this service's tokens.
+     * 
+     * Returns a JSON Web Key Set (RFC 7517) with one RSA key per kid. Other services,
+     * such as the API gateway, fetch and cache it to verify tokens locally. Consumers
+     * should refetch when they see a token with an unknown kid, which happens after
+     * a key rotation.
+     * 
+     * URL: GET /api/auth/jwks
+     * 
+     * @return a ResponseEntity containing the key set
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(signingKeyStore.getJwks());
+    }
+
+    /**
+     * Endpoint for checking whether a username and/or email can still be registered.
+     * 
+     * Meant for the signup form, which calls it while the user types. Most answers come
+     * from an in-memory Bloom filter; only possible matches are confirmed in the database.
+     * The answer is advisory: registration checks again and returns 409 Conflict if the
+     * username or email has been taken in the meantime.
+     * 
+     * URL: GET /api/auth/availability?username=alice&email=alice@example.com
+     * 
+     * @param username the username to check, optional
+     * @param email the email address to check, optional
+     * @return a ResponseEntity containing the availability of the values given
+     */
+    @GetMapping("/availability")
+    public ResponseEntity<AvailabilityResponse> availability(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String email
+    ) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(AvailabilityResponse.builder()
+                        .usernameAvailable(username == null ? null : userAvailabilityService.isUsernameAvailable(username))
+                        .emailAvailable(email == null ? null : userAvailabilityService.isEmailAvailable(email))
+                        .build());
+    }
+
+    /**
+     * Determines the client IP of a request.
+     * 
+     * Every proxy appends the address it received the request from to X-Forwarded-For,
+     * after whatever the client sent. Only the entries added by our own proxies can be
+     * trusted, so the client is the entry login-throttle.trusted-proxies places from the
+     * end: with the API gateway as the only proxy, the last one. Taking an earlier entry
+     * would let a client pick a new address for every attempt and evade the per-IP
+     * throttle. Requests with fewer entries than trusted proxies fall back to the
+     * remote address.
+     * 
+     * @param request the HTTP request
+     * @return the client IP address
+     */
+    private String clientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (trustedProxies > 0 && forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] hops = forwardedFor.split(",");
+            if (hops.length >= trustedProxies) {
+                String client = hops[hops.length - trustedProxies].trim();
+                if (!client.isEmpty()) {
+                    return client;
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
 }
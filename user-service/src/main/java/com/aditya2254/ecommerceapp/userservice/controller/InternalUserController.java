@@ -0,0 +1,75 @@
+package com.aditya2254.ecommerceapp.userservice.controller;
+
+import com.aditya2254.ecommerceapp.userservice.dto.UserDTO;
+import com.aditya2254.ecommerceapp.userservice.exceptions.BatchTooLargeException;
+import com.aditya2254.ecommerceapp.userservice.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for the internal user API used by other services.
+ * 
+ * These endpoints are meant for service-to-service calls through service discovery,
+ * for example orders-service resolving the users behind many orders. Every request must
+ * carry the shared internal API token (internal-api.token) in the
+ * {@value #SERVICE_TOKEN_HEADER} header, see SecurityConfig. The API gateway additionally
+ * refuses to route /{service}/internal/** paths.
+ * 
+ * The @RequestMapping annotation maps HTTP requests to handler methods of the controller.
+ * In this case, all endpoints in this controller will be prefixed with "/internal/users".
+ */
+@RestController
+@RequestMapping("/internal/users")
+public class InternalUserController {
+
+    /**
+     * Header carrying the internal API token.
+     */
+    public static final String SERVICE_TOKEN_HEADER = "X-Internal-Token";
+
+    /**
+     * Service for handling user-related operations.
+     */
+    private final UserService userService;
+
+    /**
+     * Maximum number of ids accepted by a single batch request.
+     */
+    private final int maxBatchSize;
+
+    public InternalUserController(
+            UserService userService,
+            @Value("${internal-api.users.max-batch-size:500}") int maxBatchSize
+    ) {
+        this.userService = userService;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Endpoint for looking up several users in one call.
+     * 
+     * This endpoint accepts a POST request with a JSON array of user ids and returns the
+     * profiles of the users that exist, read with a single database query. Unknown ids
+     * are left out of the response, so callers should match the results by id.
+     * 
+     * URL: POST /internal/users/batch
+     * 
+     * @param ids the user ids to look up, at most internal-api.users.max-batch-size
+     * @return a ResponseEntity containing the profiles of the users found
+     * @throws BatchTooLargeException if more ids are requested than allowed
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<UserDTO>> getUsers(@RequestBody List<Long> ids) {
+        if (ids.size() > maxBatchSize) {
+            throw new BatchTooLargeException(
+                    "At most " + maxBatchSize + " user ids can be requested at once, got " + ids.size());
+        }
+        return ResponseEntity.ok(userService.getUserProfiles(ids));
+    }
+}
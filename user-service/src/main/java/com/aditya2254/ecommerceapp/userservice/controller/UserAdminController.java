@@ -0,0 +1,103 @@
+package com.aditya2254.ecommerceapp.userservice.controller;
+
+import com.aditya2254.ecommerceapp.userservice.dto.UserImportReport;
+import com.aditya2254.ecommerceapp.userservice.dto.UserSearchPage;
+import com.aditya2254.ecommerceapp.userservice.service.UserDirectoryIndex;
+import com.aditya2254.ecommerceapp.userservice.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * REST controller for administrative user operations.
+ * 
+ * All endpoints in this controller are prefixed with "/api/users/admin" and require
+ * the ROLE_ADMIN authority (see SecurityConfig).
+ * 
+ * The @RequiredArgsConstructor is a Lombok annotation that generates a constructor
+ * with required arguments for all final fields, which enables constructor-based
+ * dependency injection.
+ */
+@RestController
+@RequestMapping("/api/users/admin")
+@RequiredArgsConstructor
+public class UserAdminController {
+
+    /**
+     * Media type of newline-delimited JSON, one record per line.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Service for importing users in bulk.
+     */
+    private final UserImportService userImportService;
+
+    /**
+     * In-memory index backing the user search.
+     */
+    private final UserDirectoryIndex userDirectoryIndex;
+
+    /**
+     * Endpoint for importing users in bulk.
+     * 
+     * This endpoint accepts a POST request whose body is either NDJSON (one JSON object
+     * per line) or CSV with a header line. Each record has a username, an email and
+     * either a plain password or a BCrypt passwordHash, and optionally a role. The body
+     * is streamed, so inputs with millions of users can be sent in one request.
+     * 
+     * No tokens are issued for imported users; they log in normally afterwards.
+     * 
+     * URL: POST /api/users/admin/import
+     * 
+     * @param request the HTTP request carrying the input
+     * @return a ResponseEntity containing counts and throughput of the import
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = {APPLICATION_NDJSON, "text/csv"})
+    public ResponseEntity<UserImportReport> importUsers(HttpServletRequest request) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            return ResponseEntity.ok(userImportService.importUsers(reader, format));
+        }
+    }
+
+    /**
+     * Endpoint for searching users by username or email prefix.
+     * 
+     * The match ignores case and is served from an in-memory index, so it never scans the
+     * users table. Results are ordered by the searched field and paginated with a cursor:
+     * pass the nextCursor of a page to get the following one, with the same by and q.
+     * 
+     * URL: GET /api/users/admin/search?q=ali&by=USERNAME&limit=20&cursor=...
+     * 
+     * @param q the prefix to search for; empty lists all users
+     * @param by the field to match, USERNAME (default) or EMAIL
+     * @param limit the page size, at most user-directory.max-page-size
+     * @param cursor the nextCursor of the previous page, omitted for the first page
+     * @return a ResponseEntity containing one page of users and the cursor of the next
+     */
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchPage> searchUsers(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "USERNAME") UserDirectoryIndex.SearchField by,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor
+    ) {
+        return ResponseEntity.ok(userDirectoryIndex.search(by, q, limit, cursor));
+    }
+}
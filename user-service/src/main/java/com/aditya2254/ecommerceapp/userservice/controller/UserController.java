@@ -1,7 +1,10 @@
 package com.aditya2254.ecommerceapp.userservice.controller;
 
 import com.aditya2254.ecommerceapp.userservice.dto.UserDTO;
+import com.aditya2254.ecommerceapp.userservice.filter.JwtAuthFilter;
 import com.aditya2254.ecommerceapp.userservice.service.UserService;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +13,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -53,12 +57,22 @@ public class UserController {
      * This endpoint is protected and can only be accessed by authenticated users.
      * The authentication is handled by Spring Security and the JwtAuthFilter.
      * 
-     * URL: GET /api/users/profile
+     * By default the profile is built from the claims of the access token, which the
+     * JwtAuthFilter has already verified, so no database query is made. Callers that
+     * need data changed after the token was issued pass fresh=true, which reads the
+     * user from the database.
      * 
+     * URL: GET /api/users/profile[?fresh=true]
+     * 
+     * @param fresh whether to bypass the token claims and read the database
+     * @param request the current HTTP request, carrying the parsed access token
      * @return a ResponseEntity containing the user's profile information
      */
     @GetMapping("/profile")
-    public ResponseEntity<UserDTO> getUserProfile() {
+    public ResponseEntity<UserDTO> getUserProfile(
+            @RequestParam(defaultValue = "false") boolean fresh,
+            HttpServletRequest request
+    ) {
 
         log.info("Retrieving user profile");
         // Get the current authentication from the security context
@@ -71,6 +85,16 @@ public class UserController {
         // Extract the username from the authentication object
         String username = authentication.getName();
 
+        if (fresh) {
+            return ResponseEntity.ok(userService.getFreshUserProfile(username));
+        }
+
+        // Answer from the verified token when the filter left it on the request
+        Object parsedToken = request.getAttribute(JwtAuthFilter.PARSED_TOKEN_ATTRIBUTE);
+        if (parsedToken instanceof ParsedToken token) {
+            return ResponseEntity.ok(userService.getUserProfile(token));
+        }
+
         // Delegate to the UserService to retrieve the user profile
         return ResponseEntity.ok(userService.getUserProfile(username));
     }
@@ -0,0 +1,37 @@
+package com.aditya2254.ecommerceapp.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for a username and email availability check.
+ * 
+ * Returned by GET /api/auth/availability. Only the fields that were asked about are
+ * included in the response.
+ * 
+ * Lombok annotations:
+ * - @Data: Generates getters, setters, equals, hashCode, and toString methods
+ * - @Builder: Implements the Builder pattern for creating AvailabilityResponse objects
+ * - @AllArgsConstructor: Generates a constructor with all parameters
+ * - @NoArgsConstructor: Generates a constructor with no parameters
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityResponse {
+
+    /**
+     * Whether the requested username is free, or null if no username was given.
+     */
+    private Boolean usernameAvailable;
+
+    /**
+     * Whether the requested email address is free, or null if no email was given.
+     */
+    private Boolean emailAvailable;
+}
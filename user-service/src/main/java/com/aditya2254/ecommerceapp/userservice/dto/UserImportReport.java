@@ -0,0 +1,67 @@
+package com.aditya2254.ecommerceapp.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing a bulk user import.
+ * 
+ * Returned by POST /api/users/admin/import once the whole input has been processed.
+ * Every input record is counted exactly once as imported, skipped or rejected.
+ * 
+ * Lombok annotations:
+ * - @Data: Generates getters, setters, equals, hashCode, and toString methods
+ * - @Builder: Implements the Builder pattern for creating UserImportReport objects
+ * - @AllArgsConstructor: Generates a constructor with all parameters
+ * - @NoArgsConstructor: Generates a constructor with no parameters
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportReport {
+    /**
+     * Number of records read from the input.
+     */
+    private long records;
+
+    /**
+     * Number of users written to the database.
+     */
+    private long imported;
+
+    /**
+     * Number of records skipped because their username or email already exists,
+     * in the database or earlier in the same input.
+     */
+    private long skipped;
+
+    /**
+     * Number of records rejected because they are malformed or incomplete.
+     */
+    private long rejected;
+
+    /**
+     * Number of passwords hashed during the import; pre-hashed BCrypt values are not counted.
+     */
+    private long passwordsHashed;
+
+    /**
+     * Wall-clock duration of the import in milliseconds.
+     */
+    private long durationMillis;
+
+    /**
+     * Records processed per second over the whole import.
+     */
+    private double recordsPerSecond;
+
+    /**
+     * The first rejection reasons, prefixed with their line number.
+     */
+    private List<String> errors;
+}
@@ -0,0 +1,37 @@
+package com.aditya2254.ecommerceapp.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of an admin user search.
+ * 
+ * Returned by GET /api/users/admin/search. To fetch the next page, repeat the request
+ * with cursor set to nextCursor; nextCursor is null on the last page.
+ * 
+ * Lombok annotations:
+ * - @Data: Generates getters, setters, equals, hashCode, and toString methods
+ * - @Builder: Implements the Builder pattern for creating UserSearchPage objects
+ * - @AllArgsConstructor: Generates a constructor with all parameters
+ * - @NoArgsConstructor: Generates a constructor with no parameters
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserSearchPage {
+
+    /**
+     * The matching users of this page, ordered by the searched field.
+     */
+    private List<UserDTO> users;
+
+    /**
+     * Opaque cursor of the next page, or null if there are no more results.
+     */
+    private String nextCursor;
+}
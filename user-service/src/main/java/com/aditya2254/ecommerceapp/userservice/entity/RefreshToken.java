@@ -0,0 +1,79 @@
+package com.aditya2254.ecommerceapp.userservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * RefreshToken entity that records every refresh token issued by the application.
+ *
+ * Refresh tokens are rotated on use: each successful refresh revokes the presented token
+ * and issues a new one in the same family. A family starts at login or registration and
+ * represents one session. If a token that has already been rotated is presented again,
+ * it has been stolen or replayed, and the whole family is revoked.
+ *
+ * The @Table annotation names the table "refresh_tokens" and adds indexes for family
+ * lookups (revocation) and expiry scans (compaction).
+ *
+ * Lombok annotations:
+ * - @Data: Generates getters, setters, equals, hashCode, and toString methods
+ * - @NoArgsConstructor: Generates a constructor with no parameters
+ * - @AllArgsConstructor: Generates a constructor with all parameters
+ * - @Builder: Implements the Builder pattern for creating RefreshToken objects
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_expires", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+    /**
+     * The token id, identical to the "jti" claim of the refresh JWT.
+     */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /**
+     * Id of the session this token belongs to, shared by all its rotations.
+     */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    /**
+     * Id of the user the token was issued to.
+     */
+    @Column(nullable = false)
+    private Long userId;
+
+    /**
+     * When the token was issued.
+     */
+    @Column(nullable = false)
+    private Instant issuedAt;
+
+    /**
+     * When the token expires; the row can be deleted after this.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Whether the token can no longer be used, either because it was rotated or
+     * because its family was revoked.
+     */
+    @Column(nullable = false)
+    private boolean revoked;
+
+    /**
+     * Id of the token that replaced this one on rotation, null if it was never rotated.
+     * A revoked token without a replacement means the whole family was revoked.
+     */
+    @Column(length = 36)
+    private String replacedBy;
+}
@@ -17,6 +17,8 @@ import java.util.List;
  * 
  * The @Entity annotation marks this class as a JPA entity, meaning it will be mapped to a database table.
  * The @Table annotation specifies the name of the database table as "users".
+ * The @EntityListeners annotation registers UserCacheInvalidationListener, which evicts
+ * the user from the UserDetailsCache whenever it is updated or deleted.
  * 
  * Lombok annotations:
  * - @Data: Generates getters, setters, equals, hashCode, and toString methods
@@ -26,6 +28,7 @@ import java.util.List;
  */
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidationListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,59 @@
+package com.aditya2254.ecommerceapp.userservice.entity;
+
+import com.aditya2254.ecommerceapp.userservice.service.UserDetailsCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps the UserDetailsCache consistent with the users table.
+ *
+ * Whenever a User is updated (password, role, email, username) or deleted through JPA,
+ * the cached copy is evicted so the next request reloads it from the database.
+ *
+ * The entry is evicted immediately and, when a transaction is active, once more after
+ * commit. The second eviction removes a stale copy that another request may have loaded
+ * between the flush and the commit.
+ *
+ * Spring Boot lets Hibernate create entity listeners as Spring beans, which is what
+ * makes constructor injection possible here. The cache is looked up lazily because
+ * the listener is created while the EntityManagerFactory is still being built.
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    /**
+     * Lazy handle to the user details cache.
+     */
+    private final ObjectProvider<UserDetailsCache> userDetailsCache;
+
+    public UserCacheInvalidationListener(ObjectProvider<UserDetailsCache> userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    /**
+     * Evicts the user after an update or delete has been flushed.
+     *
+     * @param user the user that was updated or deleted
+     */
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        UserDetailsCache cache = userDetailsCache.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        cache.invalidate(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(user);
+                }
+            });
+        }
+    }
+}
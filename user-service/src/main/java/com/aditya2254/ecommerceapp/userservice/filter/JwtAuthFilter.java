@@ -2,6 +2,10 @@ package com.aditya2254.ecommerceapp.userservice.filter;
 
 import com.aditya2254.ecommerceapp.userservice.exceptions.TokenExpiredException;
 import com.aditya2254.ecommerceapp.userservice.service.JwtService;
+import com.aditya2254.ecommerceapp.userservice.service.OpaqueTokenStore;
+import com.aditya2254.ecommerceapp.userservice.service.RefreshTokenService;
+import com.aditya2254.ecommerceapp.userservice.service.UserDetailsCache;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,14 +14,16 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
 
 /**
  * JWT Authentication Filter for validating JWT tokens in HTTP requests.
@@ -39,25 +45,70 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    /**
+     * Request attribute under which the verified token of an authenticated request is
+     * stored, so controllers can read its claims without parsing it again.
+     */
+    public static final String PARSED_TOKEN_ATTRIBUTE = JwtAuthFilter.class.getName() + ".PARSED_TOKEN";
+
+    /**
+     * Path of the token validation endpoint, which verifies the token on its own.
+     */
+    public static final String VALIDATE_PATH = "/api/auth/validate";
+
     /**
      * Service for JWT operations like extracting claims and validating tokens.
      */
     private final JwtService jwtService;
 
     /**
-     * Service for loading user details from the database.
+     * Cache of user details, for tokens that do not carry the user's roles.
      */
-    private final UserDetailsService userDetailsService;
+    private final UserDetailsCache userDetailsCache;
+
+    /**
+     * Store of refresh token families, used to reject access tokens of revoked sessions.
+     */
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Store of opaque access tokens, for tokens issued in opaque mode.
+     */
+    private final OpaqueTokenStore opaqueTokenStore;
+
+    /**
+     * Skips the token validation endpoint.
+     * 
+     * This filter is also registered as a plain servlet filter, so it would run for that
+     * endpoint even though the security chain ignores it (see SecurityConfig).
+     * 
+     * @param request the HTTP request
+     * @return true for the validation endpoint
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return VALIDATE_PATH.equals(request.getServletPath());
+    }
 
     /**
      * Processes each HTTP request to validate JWT tokens and set up authentication.
      * 
      * This method:
      * 1. Extracts the JWT token from the Authorization header
-     * 2. Extracts the username from the token
-     * 3. Loads the user details from the database
-     * 4. Validates the token
-     * 5. Sets up the authentication in the Spring Security context if the token is valid
+     * 2. Parses and verifies the token once, keeping the result for the later steps;
+     *    opaque tokens are looked up in the OpaqueTokenStore instead
+     * 3. Ignores refresh tokens and tokens whose session (refresh token family) has been
+     *    revoked; the family check is answered from memory in the common case
+     * 4. Builds the principal from the token claims when the token carries the user's
+     *    id, email and roles, as every access token issued at login does; neither the
+     *    database nor the UserDetailsCache is consulted, like for opaque tokens
+     * 5. Otherwise (older tokens without these claims) loads the user details from the
+     *    UserDetailsCache and validates the parsed token against them
+     * 6. Sets up the authentication in the Spring Security context if the token is valid
+     *    and exposes the parsed token as the {@link #PARSED_TOKEN_ATTRIBUTE} request attribute
+     * 
+     * A role change therefore takes effect for claims-bearing tokens when the access
+     * token expires, the same as for opaque tokens and at the gateway.
      * 
      * The @NonNull annotation indicates that the parameters cannot be null.
      * 
@@ -76,7 +127,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Extract the Authorization header from the request
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final ParsedToken parsedToken;
 
         // If the Authorization header is missing or doesn't start with "Bearer ",
         // continue the filter chain without authentication
@@ -87,34 +138,83 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         // Extract the JWT token (remove "Bearer " prefix)
         jwt = authHeader.substring(7);
-        // Extract the username from the token
+        // Opaque tokens are resolved with a single in-memory lookup instead of parsing
+        if (OpaqueTokenStore.isOpaqueToken(jwt)) {
+            authenticateOpaqueToken(jwt, request);
+            filterChain.doFilter(request, response);
+            return;
+        }
+        // Parse and verify the token once; every later check reads from the parsed claims
         try {
-            username = jwtService.extractUsername(jwt);
+            parsedToken = jwtService.parseToken(jwt);
         } catch (ExpiredJwtException e) {
             throw new TokenExpiredException("Token has expired");
         }
+        // Refresh tokens only work at /api/auth/refresh, and revoked sessions not at all
+        final String familyId = parsedToken.getFamilyId();
+        if (parsedToken.isRefreshToken()
+                || (familyId != null && refreshTokenService.isFamilyRevoked(familyId))) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        final String username = parsedToken.getUsername();
 
         // If the username was successfully extracted and the user is not already authenticated
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            // Load the user details from the database
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            // Validate the token
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                // Create an authentication token with the user details and authorities
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null, // No credentials needed here as we're authenticating with a token
-                        userDetails.getAuthorities()
-                );
-                // Add request details to the authentication token
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                // Set the authentication in the security context
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (parsedToken.hasProfileClaims()) {
+                // The verified claims describe the user; parseToken has already rejected expired tokens
+                authenticate(username, parsedToken.getRoles().stream().map(SimpleGrantedAuthority::new).toList(), request);
+                request.setAttribute(PARSED_TOKEN_ATTRIBUTE, parsedToken);
+            } else {
+                // Load the user details, hitting the database only on a cache miss
+                UserDetails userDetails = this.userDetailsCache.loadUserByUsername(username);
+                // Validate the token
+                if (jwtService.isTokenValid(parsedToken, userDetails)) {
+                    authenticate(userDetails, userDetails.getAuthorities(), request);
+                    // Keep the parsed token for the rest of the request
+                    request.setAttribute(PARSED_TOKEN_ATTRIBUTE, parsedToken);
+                }
             }
         }
         // Continue the filter chain
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Authenticates a request carrying an opaque access token.
+     * 
+     * The session stored with the token already holds the username and roles, so neither
+     * the database nor the user details cache is consulted. Unknown, expired and revoked
+     * tokens leave the request unauthenticated.
+     * 
+     * @param token the opaque access token
+     * @param request the HTTP request
+     */
+    private void authenticateOpaqueToken(String token, HttpServletRequest request) {
+        OpaqueTokenStore.Session session = opaqueTokenStore.lookup(token);
+        if (session == null || SecurityContextHolder.getContext().getAuthentication() != null
+                || (session.familyId() != null && refreshTokenService.isFamilyRevoked(session.familyId()))) {
+            return;
+        }
+        authenticate(session.username(), session.roles().stream().map(SimpleGrantedAuthority::new).toList(), request);
+    }
+
+    /**
+     * Sets up the authentication of the request in the Spring Security context.
+     * 
+     * @param principal the user details, or the username when the user comes from the token
+     * @param authorities the authorities of the user
+     * @param request the HTTP request
+     */
+    private void authenticate(Object principal, Collection<? extends GrantedAuthority> authorities,
+                              HttpServletRequest request) {
+        // No credentials needed here as we're authenticating with a token
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                authorities
+        );
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 }
@@ -0,0 +1,90 @@
+package com.aditya2254.ecommerceapp.userservice.repository;
+
+import com.aditya2254.ecommerceapp.userservice.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entity operations.
+ *
+ * Besides the basic CRUD operations inherited from JpaRepository, it provides the queries
+ * needed for refresh token rotation, family revocation and compaction of expired tokens.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Loads a token and locks its row until the end of the transaction.
+     *
+     * Used during rotation so two concurrent refreshes with the same token cannot both
+     * succeed: the second one waits, then sees the token as revoked.
+     *
+     * @param id the token id (jti)
+     * @return the token, if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from RefreshToken t where t.id = :id")
+    Optional<RefreshToken> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Revokes every token of a family that is not revoked yet.
+     *
+     * @param familyId the family id
+     * @return the number of tokens revoked
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId = :familyId and t.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    /**
+     * Checks whether a family has been revoked as a whole (logout or reuse detection).
+     *
+     * Rotated tokens are revoked too, but always have a replacement; a revoked token
+     * without one only exists once the family itself has been revoked.
+     *
+     * @param familyId the family id
+     * @return true if the family has been revoked
+     */
+    boolean existsByFamilyIdAndRevokedTrueAndReplacedByIsNull(String familyId);
+
+    /**
+     * Lists the ids of revoked tokens that have not expired yet.
+     *
+     * @param now the current time
+     * @return the token ids
+     */
+    @Query("select t.id from RefreshToken t where t.revoked = true and t.expiresAt > :now")
+    List<String> findRevokedIdsNotExpired(@Param("now") Instant now);
+
+    /**
+     * Lists the ids of revoked families that still have unexpired tokens.
+     *
+     * @param now the current time
+     * @return the family ids
+     */
+    @Query("select distinct t.familyId from RefreshToken t "
+            + "where t.revoked = true and t.replacedBy is null and t.expiresAt > :now")
+    List<String> findRevokedFamilyIdsNotExpired(@Param("now") Instant now);
+
+    /**
+     * Deletes every token that expired before the cutoff.
+     *
+     * @param cutoff the cutoff time
+     * @return the number of tokens deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") Instant cutoff);
+}
@@ -2,8 +2,12 @@ package com.aditya2254.ecommerceapp.userservice.repository;
 
 import com.aditya2254.ecommerceapp.userservice.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -63,4 +67,36 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if the email exists, false otherwise
      */
     Boolean existsByEmail(String email);
+
+    /**
+     * Finds the summaries of several users with a single IN query.
+     * 
+     * Only the columns of the UserSummary projection are selected. Ids without a
+     * matching user are skipped, and the order of the result is unspecified.
+     * 
+     * @param ids the user ids to look up
+     * @return the summaries of the users that exist
+     */
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns which of the given usernames are already taken.
+     * 
+     * Used by the bulk import to skip existing users before spending time hashing
+     * their passwords.
+     * 
+     * @param usernames the usernames to check
+     * @return the usernames that exist
+     */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Returns which of the given email addresses are already taken.
+     * 
+     * @param emails the email addresses to check
+     * @return the email addresses that exist
+     */
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
@@ -0,0 +1,21 @@
+package com.aditya2254.ecommerceapp.userservice.repository;
+
+import com.aditya2254.ecommerceapp.userservice.entity.Role;
+
+/**
+ * Closed projection of the User entity with only the columns other services need.
+ * 
+ * Spring Data JPA selects just these columns when a repository method returns this
+ * interface, so the password hash is never read and no managed User entities are
+ * created. Used for the batch lookups of the internal user API.
+ */
+public interface UserSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    Role getRole();
+}
@@ -3,29 +3,38 @@ package com.aditya2254.ecommerceapp.userservice.service;
 import com.aditya2254.ecommerceapp.userservice.dto.AuthRequest;
 import com.aditya2254.ecommerceapp.userservice.dto.AuthResponse;
 import com.aditya2254.ecommerceapp.userservice.dto.RegisterRequest;
+import com.aditya2254.ecommerceapp.userservice.dto.UserDTO;
 import com.aditya2254.ecommerceapp.userservice.entity.Role;
 import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.exceptions.InvalidTokenException;
+import com.aditya2254.ecommerceapp.userservice.exceptions.TokenExpiredException;
+import com.aditya2254.ecommerceapp.userservice.exceptions.UserAlreadyExistsException;
 import com.aditya2254.ecommerceapp.userservice.repository.UserRepository;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service class for handling authentication operations.
  * 
  * This service is responsible for user registration, authentication, and token refresh.
  * It works with the UserRepository to store and retrieve user data, the PasswordEncoder
- * to securely hash passwords, the JwtService to generate and validate tokens, and the
- * AuthenticationManager to authenticate users.
+ * to securely hash and verify passwords, and the JwtService to generate and validate tokens.
  * 
  * The @Service annotation marks this class as a Spring service component, making it
  * eligible for dependency injection.
@@ -53,35 +62,131 @@ public class AuthService {
      */
     private final JwtService jwtService;
 
+
+    /**
+     * Sliding-window throttle for failed logins per username and client IP.
+     */
+    private final LoginThrottle loginThrottle;
+
+    /**
+     * Store of issued refresh tokens, used for rotation and revocation.
+     */
+    private final RefreshTokenService refreshTokenService;
+
+    /**
+     * Service building user profiles, from token claims when possible.
+     */
+    private final UserService userService;
+
+    /**
+     * Registry for the per-phase login timers.
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Store of opaque access tokens, used when auth.token-mode=opaque.
+     */
+    private final OpaqueTokenStore opaqueTokenStore;
+
+    /**
+     * Index of the admin user search, which new users are added to.
+     */
+    private final UserDirectoryIndex userDirectoryIndex;
+
+    /**
+     * Bloom-filter backed check of taken usernames and emails.
+     */
+    private final UserAvailabilityService userAvailabilityService;
+
+    /**
+     * Kind of access token issued: "jwt" (default) or "opaque".
+     */
+    @Value("${auth.token-mode:jwt}")
+    private String tokenMode;
+
+    /**
+     * Timers for the phases of a login, see {@link #init()}.
+     */
+    private Timer lookupTimer;
+    private Timer verifyTimer;
+    private Timer signTimer;
+
     /**
-     * Spring Security's authentication manager for authenticating users.
+     * Counts passwords rehashed at login because their stored cost differed.
      */
-    private final AuthenticationManager authenticationManager;
+    private Counter rehashCounter;
+
+    /**
+     * Hash of a random password, verified against when the username does not exist so
+     * that unknown and known usernames take the same time to reject.
+     */
+    private String dummyPasswordHash;
+
+    /**
+     * Registers the login phase timers and prepares the dummy hash.
+     * 
+     * Each phase is recorded under auth.login.phase, tagged with phase=lookup (loading
+     * the user), phase=verify (BCrypt check, including the wait for a hashing thread) or
+     * phase=sign (recording the refresh token and signing both tokens). Rehashes on login
+     * are counted by auth.password.rehashed.
+     */
+    @PostConstruct
+    public void init() {
+        this.lookupTimer = phaseTimer("lookup");
+        this.verifyTimer = phaseTimer("verify");
+        this.signTimer = phaseTimer("sign");
+        this.rehashCounter = Counter.builder("auth.password.rehashed")
+                .description("Passwords rehashed at login because their BCrypt cost differed")
+                .register(meterRegistry);
+        this.dummyPasswordHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
 
     /**
      * Registers a new user in the system.
      * 
      * This method:
-     * 1. Creates a new User entity from the registration request
-     * 2. Encodes the password for secure storage
-     * 3. Assigns the ROLE_USER role to the new user
-     * 4. Saves the user to the database
-     * 5. Generates access and refresh tokens for the new user
+     * 1. Rejects the request if the username or email is already taken; the check is
+     *    answered from memory in the common case (see UserAvailabilityService)
+     * 2. Creates a new User entity from the registration request
+     * 3. Encodes the password for secure storage
+     * 4. Assigns the ROLE_USER role to the new user
+     * 5. Saves the user to the database and adds it to the availability filters and the
+     *    admin search index
+     * 6. Starts a new refresh token family (session) and generates access and refresh
+     *    tokens for the new user
+     * 
+     * The check in step 1 runs before the password is hashed, so a duplicate costs no
+     * BCrypt time. Two concurrent registrations of the same name can both pass it; the
+     * unique constraints of the users table then reject the second one in step 5.
      * 
      * @param request the registration request containing username, email, and password
      * @return an AuthResponse containing the access and refresh tokens
+     * @throws UserAlreadyExistsException if the username or email is already taken
      */
     public AuthResponse register(RegisterRequest request) {
+        if (request.getUsername() != null && !userAvailabilityService.isUsernameAvailable(request.getUsername())) {
+            throw new UserAlreadyExistsException("Username is already taken");
+        }
+        if (request.getEmail() != null && !userAvailabilityService.isEmailAvailable(request.getEmail())) {
+            throw new UserAlreadyExistsException("Email is already registered");
+        }
         var user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
                 .password(passwordEncoder.encode(request.getPassword()))
                 .role(Role.ROLE_USER) // Default role for new users
                 .build();
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new UserAlreadyExistsException("Username or email is already taken");
+        }
+        userAvailabilityService.markTaken(user);
+        userDirectoryIndex.add(user);
 
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
+        var familyId = UUID.randomUUID().toString();
+        var jwtToken = issueAccessToken(user, familyId);
+        var refreshToken = refreshTokenService.issue(user, familyId);
 
         return AuthResponse.builder()
                 .accessToken(jwtToken)
@@ -93,38 +198,50 @@ public class AuthService {
      * Authenticates a user with their username and password.
      * 
      * This method:
-     * 1. Uses Spring Security's AuthenticationManager to verify the credentials
-     * 2. Retrieves the user from the database if authentication is successful
-     * 3. Generates access and refresh tokens for the authenticated user
+     * 1. Rejects the attempt if the username or client IP has too many recent failures
+     * 2. Loads the user with a single query
+     * 3. Verifies the password against the stored BCrypt hash
+     * 4. Rehashes the password if its stored cost differs from the configured one
+     * 5. Starts a new refresh token family (session) and generates access and refresh
+     *    tokens for the authenticated user
      * 
-     * If authentication fails, the AuthenticationManager will throw an exception.
+     * The throttle check happens before any database lookup or BCrypt verification, so
+     * throttled attempts cost almost nothing. The user loaded in step 2 is used for the
+     * tokens as well, and an unknown username is verified against a dummy hash so it
+     * takes as long to reject as a wrong password. Steps 2, 3 and 5 are timed separately
+     * (see {@link #init()}).
      * 
      * @param request the authentication request containing username and password
+     * @param clientIp the IP address of the client, may be null
      * @return an AuthResponse containing the access and refresh tokens
-     * @throws org.springframework.security.core.AuthenticationException if authentication fails
+     * @throws BadCredentialsException if the username or password is wrong
+     * @throws com.aditya2254.ecommerceapp.userservice.exceptions.TooManyLoginAttemptsException if throttled
      */
-    // AuthService.java - update token generation
-    public AuthResponse authenticate(AuthRequest request) {
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getUsername(),
-                            request.getPassword()
-                    )
-            );
-        } catch (BadCredentialsException e) {
+    public AuthResponse authenticate(AuthRequest request, String clientIp) {
+        loginThrottle.checkAllowed(request.getUsername(), clientIp);
+
+        long start = System.nanoTime();
+        User user = request.getUsername() == null ? null
+                : userRepository.findByUsername(request.getUsername()).orElse(null);
+        long lookedUp = System.nanoTime();
+        lookupTimer.record(lookedUp - start, TimeUnit.NANOSECONDS);
+
+        String rawPassword = request.getPassword() == null ? "" : request.getPassword();
+        boolean matches = passwordEncoder.matches(rawPassword, user != null ? user.getPassword() : dummyPasswordHash);
+        long verified = System.nanoTime();
+        verifyTimer.record(verified - lookedUp, TimeUnit.NANOSECONDS);
+
+        if (user == null || !matches) {
+            loginThrottle.recordFailure(request.getUsername(), clientIp);
             throw new BadCredentialsException("Invalid username or password");
         }
-        var user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow();
+        loginThrottle.recordSuccess(request.getUsername());
+        rehashIfNeeded(user, rawPassword);
 
-        // Create claims with user ID
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId());
-        claims.put("roles", List.of(user.getRole().name()));
-
-        var jwtToken = jwtService.generateToken(claims, user);
-        var refreshToken = jwtService.generateRefreshToken(user);
+        var familyId = UUID.randomUUID().toString();
+        var jwtToken = issueAccessToken(user, familyId);
+        var refreshToken = refreshTokenService.issue(user, familyId);
+        signTimer.record(System.nanoTime() - verified, TimeUnit.NANOSECONDS);
 
         return AuthResponse.builder()
                 .accessToken(jwtToken)
@@ -132,31 +249,184 @@ public class AuthService {
                 .build();
     }
 
+    /**
+     * Rehashes a user's password with the current BCrypt cost if the stored hash uses a
+     * different one.
+     * 
+     * The cost is recorded in each hash, so hashes of any cost keep verifying. Changing
+     * password-hashing.strength (or recalibrating on other hardware) therefore needs no
+     * migration: each user moves to the new cost on their next successful login, while
+     * the plain password is at hand.
+     * 
+     * @param user the authenticated user
+     * @param rawPassword the password the user just logged in with
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        user.setPassword(passwordEncoder.encode(rawPassword));
+        userRepository.save(user);
+        rehashCounter.increment();
+    }
+
     /**
      * Refreshes an access token using a valid refresh token.
      * 
      * This method:
-     * 1. Extracts the username from the refresh token
+     * 1. Parses and verifies the refresh token
      * 2. Retrieves the user from the database
-     * 3. Validates the refresh token
-     * 4. If valid, generates a new access token
+     * 3. Rotates the refresh token: the presented token is revoked and a new one is issued
+     *    in the same family (see RefreshTokenService)
+     * 4. Generates a new access token for the same family
+     * 
+     * A refresh token can only be used once. Reusing an already rotated token revokes the
+     * whole family, so a stolen token stops working for both the thief and the user.
      * 
      * @param refreshToken the refresh token to use
-     * @return an AuthResponse containing the new access token and the same refresh token
-     * @throws RuntimeException if the refresh token is invalid
+     * @return an AuthResponse containing the new access token and the new refresh token
+     * @throws InvalidTokenException if the refresh token is invalid, revoked or reused
      */
     public AuthResponse refreshToken(String refreshToken) {
-        String username = jwtService.getUsernameFromToken(refreshToken);
-        var user = userRepository.findByUsername(username)
-                .orElseThrow();
-
-        if (jwtService.isTokenValid(refreshToken, user)) {
-            var newAccessToken = jwtService.generateToken(user);
-            return AuthResponse.builder()
-                    .accessToken(newAccessToken)
-                    .refreshToken(refreshToken) // Same refresh token
-                    .build();
+        var parsedToken = jwtService.parseToken(refreshToken);
+        if (!parsedToken.isRefreshToken()) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        var user = userRepository.findByUsername(parsedToken.getUsername())
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        var newRefreshToken = refreshTokenService.rotate(parsedToken, user);
+        var newAccessToken = issueAccessToken(user, parsedToken.getFamilyId());
+        return AuthResponse.builder()
+                .accessToken(newAccessToken)
+                .refreshToken(newRefreshToken)
+                .build();
+    }
+
+    /**
+     * Logs a session out by revoking its refresh token family.
+     * 
+     * The refresh token and every other token of its family stop working immediately.
+     * Access tokens of the family are rejected by this service as well; services that
+     * verify JWT access tokens on their own accept them until they expire. An opaque
+     * access token passed along is removed from the OpaqueTokenStore right away.
+     * 
+     * @param refreshToken the refresh token of the session to end
+     * @param accessToken the access token of the session, may be null
+     * @throws InvalidTokenException if the token is not a refresh token
+     */
+    public void logout(String refreshToken, String accessToken) {
+        var parsedToken = jwtService.parseToken(refreshToken);
+        if (!parsedToken.isRefreshToken() || parsedToken.getFamilyId() == null) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        refreshTokenService.revokeFamily(parsedToken.getFamilyId());
+        if (accessToken != null && OpaqueTokenStore.isOpaqueToken(accessToken)) {
+            opaqueTokenStore.revoke(accessToken);
+        }
+    }
+
+    /**
+     * Validates an access token and returns the user it was issued to.
+     * 
+     * This is the lightweight check used by the API gateway. The token is verified once
+     * with the shared parser and the profile is built from its claims, so a valid token
+     * needs no database access. Only legacy tokens without profile claims read the user,
+     * through the user details cache. Opaque tokens are looked up in the OpaqueTokenStore.
+     * 
+     * @param token the access token
+     * @return the profile of the token's user
+     * @throws TokenExpiredException if the token has expired
+     * @throws InvalidTokenException if the token is a refresh token or its session is revoked
+     * @throws io.jsonwebtoken.JwtException if the token is malformed or its signature is invalid
+     */
+    public UserDTO validateAccessToken(String token) {
+        if (OpaqueTokenStore.isOpaqueToken(token)) {
+            return validateOpaqueToken(token);
+        }
+        ParsedToken parsedToken;
+        try {
+            parsedToken = jwtService.parseToken(token);
+        } catch (ExpiredJwtException e) {
+            throw new TokenExpiredException("Token has expired");
+        }
+        if (parsedToken.isRefreshToken()) {
+            throw new InvalidTokenException("Refresh tokens cannot be used for authentication");
         }
-        throw new RuntimeException("Invalid refresh token");
+        String familyId = parsedToken.getFamilyId();
+        if (familyId != null && refreshTokenService.isFamilyRevoked(familyId)) {
+            throw new InvalidTokenException("Session has been revoked");
+        }
+        return userService.getUserProfile(parsedToken);
+    }
+
+    /**
+     * Validates an opaque access token with a single in-memory lookup.
+     * 
+     * @param token the opaque access token
+     * @return the profile stored with the session
+     * @throws InvalidTokenException if the token is unknown, expired or its session is revoked
+     */
+    private UserDTO validateOpaqueToken(String token) {
+        OpaqueTokenStore.Session session = opaqueTokenStore.lookup(token);
+        if (session == null) {
+            throw new InvalidTokenException("Invalid or expired token");
+        }
+        if (session.familyId() != null && refreshTokenService.isFamilyRevoked(session.familyId())) {
+            throw new InvalidTokenException("Session has been revoked");
+        }
+        return UserDTO.builder()
+                .id(session.userId())
+                .username(session.username())
+                .email(session.email())
+                .roles(session.roles())
+                .build();
+    }
+
+    /**
+     * Issues an access token in the configured mode.
+     * 
+     * By default this is a signed JWT carrying the user's profile claims. With
+     * auth.token-mode=opaque it is a random token whose session is kept in the
+     * OpaqueTokenStore, which can be revoked instantly.
+     * 
+     * @param user the user the token is issued for
+     * @param familyId the refresh token family of the session
+     * @return the access token
+     */
+    private String issueAccessToken(User user, String familyId) {
+        if ("opaque".equalsIgnoreCase(tokenMode)) {
+            return opaqueTokenStore.create(user, familyId, jwtService.getAccessExpiration());
+        }
+        return jwtService.generateToken(accessTokenClaims(user, familyId), user);
+    }
+
+    /**
+     * Builds the extra claims carried by every access token.
+     * 
+     * The access token describes the user completely (id, email and roles, with the
+     * username as subject), so endpoints like GET /api/users/profile can answer from
+     * the token alone without reading the database. It also carries the refresh token
+     * family, so the token stops being accepted once its session is revoked.
+     * 
+     * @param user the user the token is issued for
+     * @param familyId the refresh token family of the session
+     * @return the claims to add to the access token
+     */
+    private Map<String, Object> accessTokenClaims(User user, String familyId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ParsedToken.CLAIM_USER_ID, user.getId());
+        claims.put(ParsedToken.CLAIM_EMAIL, user.getEmail());
+        claims.put(ParsedToken.CLAIM_ROLES, List.of(user.getRole().name()));
+        claims.put(ParsedToken.CLAIM_FAMILY, familyId);
+        return claims;
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("auth.login.phase")
+                .description("Time spent in each phase of a login")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
     }
 }
@@ -1,18 +1,27 @@
 package com.aditya2254.ecommerceapp.userservice.service;
 
 import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.util.JwtMinter;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -27,12 +36,25 @@ import java.util.function.Function;
  * 2. Authorization: Determining what resources a user can access
  * 3. Information Exchange: Securely transmitting information between parties
  * 
+ * Once a key directory is configured (jwt.signing.key-dir), tokens are signed with RS256
+ * using the active key of the SigningKeyStore, and carry that key's id in the "kid"
+ * header. Verification picks the public key by kid, so tokens signed with an older key
+ * stay valid while keys are rotated. Other services verify tokens with the public keys
+ * published at GET /api/auth/jwks.
+ * 
+ * Without a key directory tokens are signed with the shared HS256 secret (jwt.secret),
+ * so they survive restarts and every instance accepts them. jwt.signing.algorithm
+ * overrides the choice. Tokens signed with the secret are still accepted while
+ * jwt.signing.accept-legacy-hs256 is true.
+ * 
  * The @Service annotation marks this class as a Spring service component, making it
  * eligible for dependency injection.
  */
 @Service
 public class JwtService {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+
     /**
      * Secret key used to sign the JWT tokens.
      * This key is loaded from the application.properties file.
@@ -54,6 +76,112 @@ public class JwtService {
     @Value("${jwt.refresh-expiration}")
     private long refreshExpiration;
 
+    /**
+     * Algorithm new tokens are signed with: RS256 or HS256 (shared secret). Empty picks
+     * RS256 when the SigningKeyStore reads a key directory and HS256 otherwise, because
+     * its ephemeral key would not survive a restart and differs between instances.
+     */
+    @Value("${jwt.signing.algorithm:}")
+    private String signingAlgorithm;
+
+    /**
+     * Whether tokens signed with the legacy HS256 secret are still accepted.
+     */
+    @Value("${jwt.signing.accept-legacy-hs256:true}")
+    private boolean acceptLegacyHs256;
+
+    /**
+     * Store of the RSA signing and verification keys.
+     */
+    @Autowired
+    private SigningKeyStore signingKeyStore;
+
+    /**
+     * HMAC key derived from the legacy secret. Decoding the secret and building the key
+     * is done once at startup instead of on every sign and verify.
+     */
+    private Key signingKey;
+
+    /**
+     * Parser that resolves the verification key from each token's header. JwtParser
+     * instances are immutable and thread-safe, so a single one is shared by all requests.
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * Mints the tokens, reusing headers and signing engines between tokens.
+     */
+    private final JwtMinter jwtMinter = new JwtMinter();
+
+    /**
+     * Builds the legacy signing key and the shared parser once the configuration has
+     * been injected.
+     */
+    @PostConstruct
+    public void init() {
+        if (signingAlgorithm == null || signingAlgorithm.isBlank()) {
+            signingAlgorithm = signingKeyStore.isEphemeral()
+                    ? SignatureAlgorithm.HS256.getValue()
+                    : SignatureAlgorithm.RS256.getValue();
+        } else if (SignatureAlgorithm.RS256.getValue().equalsIgnoreCase(signingAlgorithm) && signingKeyStore.isEphemeral()) {
+            log.warn("Signing tokens with an ephemeral RSA key: tokens will not survive a restart "
+                    + "and are only accepted by this instance. Set jwt.signing.key-dir.");
+        }
+        log.info("Signing tokens with {}", signingAlgorithm);
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveVerificationKey(header);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Picks the key to verify a token with, based on its header.
+     * 
+     * 1. Tokens with a kid are verified with the matching public key from the SigningKeyStore
+     * 2. Tokens without a kid are legacy HS256 tokens, verified with the shared secret
+     * 
+     * The parser additionally checks that the key type matches the header's algorithm, so a
+     * token cannot pass off an RSA public key as an HMAC secret.
+     * 
+     * @param header the token header
+     * @return the verification key
+     * @throws JwtException if the kid is unknown or legacy tokens are not accepted
+     */
+    private Key resolveVerificationKey(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid != null) {
+            Key key = signingKeyStore.getVerificationKey(kid);
+            if (key == null) {
+                throw new JwtException("Unknown signing key id: " + kid);
+            }
+            return key;
+        }
+        if (acceptLegacyHs256 && SignatureAlgorithm.HS256.getValue().equals(header.getAlgorithm())) {
+            return signingKey;
+        }
+        throw new JwtException("Token has no signing key id");
+    }
+
+    /**
+     * Parses and verifies a JWT token once.
+     *
+     * The returned ParsedToken exposes the subject, expiration and any other claim, so
+     * callers that need several values from the same token do not parse it again.
+     *
+     * @param token the JWT token
+     * @return the verified token
+     * @throws io.jsonwebtoken.ExpiredJwtException if the token has expired
+     * @throws io.jsonwebtoken.JwtException if the token is malformed or its signature is invalid
+     */
+    public ParsedToken parseToken(String token) {
+        return new ParsedToken(token, extractAllClaims(token));
+    }
+
     /**
      * Extracts the username (subject) from a JWT token.
      * 
@@ -84,7 +212,7 @@ public class JwtService {
      * @return a JWT token
      */
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        return generateToken(Map.of(), userDetails);
     }
 
     /**
@@ -111,12 +239,44 @@ public class JwtService {
     public String generateRefreshToken(
             UserDetails userDetails
     ) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(Map.of(), userDetails, refreshExpiration);
+    }
+
+    /**
+     * Generates a refresh token for a user with extra claims, such as the token id and
+     * family used by the RefreshTokenService.
+     * 
+     * @param extraClaims additional claims to include in the token
+     * @param userDetails the user details
+     * @return a refresh token
+     */
+    public String generateRefreshToken(
+            Map<String, Object> extraClaims,
+            UserDetails userDetails
+    ) {
+        return buildToken(extraClaims, userDetails, refreshExpiration);
+    }
+
+    /**
+     * @return the lifetime of access tokens in milliseconds
+     */
+    public long getAccessExpiration() {
+        return jwtExpiration;
+    }
+
+    /**
+     * @return the lifetime of refresh tokens in milliseconds
+     */
+    public long getRefreshExpiration() {
+        return refreshExpiration;
     }
 
     /**
      * Builds a JWT token with the specified claims, subject, and expiration time.
      * 
+     * The token is minted by the JwtMinter, which reuses the encoded header, the signing
+     * key and a per-thread Signature or Mac instead of building each token with jjwt.
+     * 
      * @param extraClaims additional claims to include in the token
      * @param userDetails the user details
      * @param expiration the token expiration time in milliseconds
@@ -127,14 +287,29 @@ public class JwtService {
             UserDetails userDetails,
             long expiration
     ) {
-        return Jwts
-                .builder()
-                .setClaims(extraClaims)
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
+        long now = System.currentTimeMillis();
+        return sign(extraClaims, userDetails.getUsername(), now, now + expiration);
+    }
+
+    /**
+     * Signs a token with the configured algorithm.
+     * 
+     * With RS256 the active key of the SigningKeyStore is used and its id is written into
+     * the "kid" header. With HS256 the legacy shared secret is used and no kid is set.
+     * 
+     * @param claims the custom claims
+     * @param subject the subject (username)
+     * @param issuedAtMillis the issue time in milliseconds since the epoch
+     * @param expirationMillis the expiry time in milliseconds since the epoch
+     * @return the compact signed token
+     */
+    private String sign(Map<String, Object> claims, String subject, long issuedAtMillis, long expirationMillis) {
+        if (SignatureAlgorithm.HS256.getValue().equalsIgnoreCase(signingAlgorithm)) {
+            return jwtMinter.mintHs256(getSignInKey(), claims, subject, issuedAtMillis, expirationMillis);
+        }
+        SigningKeyStore.SigningKey activeKey = signingKeyStore.getActiveKey();
+        return jwtMinter.mintRs256(activeKey.kid(), activeKey.privateKey(), claims, subject,
+                issuedAtMillis, expirationMillis);
     }
 
     /**
@@ -148,8 +323,18 @@ public class JwtService {
      * @return true if the token is valid, false otherwise
      */
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
+    }
+
+    /**
+     * Validates an already parsed JWT token for a specific user without parsing it again.
+     *
+     * @param parsedToken the parsed token to validate
+     * @param userDetails the user details to validate against
+     * @return true if the token is valid, false otherwise
+     */
+    public boolean isTokenValid(ParsedToken parsedToken, UserDetails userDetails) {
+        return userDetails.getUsername().equals(parsedToken.getUsername()) && !parsedToken.isExpired();
     }
 
     /**
@@ -179,23 +364,19 @@ public class JwtService {
      * @return all claims contained in the token
      */
     public Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     /**
-     * Gets the signing key used to verify JWT signatures.
-     * The key is derived from the base64-encoded secret key.
+     * Gets the legacy HS256 key used to sign and verify secret-based JWT signatures.
+     * The key is derived from the base64-encoded secret key once, in {@link #init()}.
      * 
      * @return the signing key
      */
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     /**
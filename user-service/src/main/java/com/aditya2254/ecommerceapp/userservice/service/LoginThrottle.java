@@ -0,0 +1,247 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.exceptions.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory sliding-window throttle for failed logins.
+ *
+ * Every failed login costs a database lookup and a full BCrypt verification. To keep
+ * credential stuffing from burning the CPU budget, failed attempts are counted per
+ * username and per client IP over a sliding window. Once either limit is reached, further
+ * logins for that username or from that IP are rejected with HTTP 429 before the user is
+ * loaded or the password checked.
+ *
+ * Implementation notes:
+ * 1. Lock striping: keys are spread over a fixed number of stripes, each guarded by its
+ *    own lock, so concurrent logins rarely contend with each other.
+ * 2. Bounded memory: each stripe holds at most maxKeys / stripes windows and drops the
+ *    least recently used one when full. A window stores at most "limit" timestamps.
+ * 3. Idle eviction: a scheduled sweep removes windows without a failure in the last
+ *    window length, so memory is released once an attack stops.
+ *
+ * State is per instance; with several instances each enforces the limits on its own.
+ */
+@Service
+public class LoginThrottle {
+
+    /**
+     * Key prefix for per-username windows.
+     */
+    private static final String USERNAME_PREFIX = "u:";
+
+    /**
+     * Key prefix for per-IP windows.
+     */
+    private static final String IP_PREFIX = "ip:";
+
+    private final long windowMillis;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final Stripe[] stripes;
+
+    private final Counter throttledByUsername;
+    private final Counter throttledByIp;
+
+    public LoginThrottle(
+            @Value("${login-throttle.window:60000}") long windowMillis,
+            @Value("${login-throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+            @Value("${login-throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+            @Value("${login-throttle.max-keys:100000}") int maxKeys,
+            @Value("${login-throttle.stripes:64}") int stripeCount,
+            MeterRegistry meterRegistry
+    ) {
+        this.windowMillis = windowMillis;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.stripes = new Stripe[stripeCount];
+        int keysPerStripe = Math.max(1, maxKeys / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(keysPerStripe);
+        }
+
+        this.throttledByUsername = Counter.builder("auth.login.throttled")
+                .description("Logins rejected by the login throttle")
+                .tag("key", "username")
+                .register(meterRegistry);
+        this.throttledByIp = Counter.builder("auth.login.throttled")
+                .description("Logins rejected by the login throttle")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", this, LoginThrottle::trackedKeys)
+                .description("Usernames and IPs currently tracked by the login throttle")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether a login attempt may proceed.
+     *
+     * @param username the username being logged into
+     * @param clientIp the client's IP address, may be null
+     * @throws TooManyLoginAttemptsException if the username or the IP is over its limit
+     */
+    public void checkAllowed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (username != null) {
+            long retryAfter = retryAfterMillis(usernameKey(username), now);
+            if (retryAfter > 0) {
+                throttledByUsername.increment();
+                throw new TooManyLoginAttemptsException("Too many failed login attempts for this account", toSeconds(retryAfter));
+            }
+        }
+        if (clientIp != null) {
+            long retryAfter = retryAfterMillis(IP_PREFIX + clientIp, now);
+            if (retryAfter > 0) {
+                throttledByIp.increment();
+                throw new TooManyLoginAttemptsException("Too many failed login attempts from this address", toSeconds(retryAfter));
+            }
+        }
+    }
+
+    /**
+     * Records a failed login for the username and the IP.
+     *
+     * @param username the username that failed to log in
+     * @param clientIp the client's IP address, may be null
+     */
+    public void recordFailure(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (username != null) {
+            record(usernameKey(username), maxFailuresPerUsername, now);
+        }
+        if (clientIp != null) {
+            record(IP_PREFIX + clientIp, maxFailuresPerIp, now);
+        }
+    }
+
+    /**
+     * Clears the username's failures after a successful login. The IP's failures are
+     * kept, so one valid account cannot be used to reset an address that is stuffing others.
+     *
+     * @param username the username that logged in
+     */
+    public void recordSuccess(String username) {
+        if (username == null) {
+            return;
+        }
+        String key = usernameKey(username);
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.windows.remove(key);
+        }
+    }
+
+    /**
+     * Removes windows that have seen no failure for a whole window length.
+     */
+    @Scheduled(fixedDelayString = "${login-throttle.sweep-interval:60000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.windows.values().removeIf(window -> now - window.lastFailure >= windowMillis);
+            }
+        }
+    }
+
+    private long retryAfterMillis(String key, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            SlidingWindow window = stripe.windows.get(key);
+            return window == null ? 0 : window.retryAfterMillis(now, windowMillis);
+        }
+    }
+
+    private void record(String key, int limit, long now) {
+        Stripe stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.windows.computeIfAbsent(key, k -> new SlidingWindow(limit)).record(now);
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[Math.floorMod(hash, stripes.length)];
+    }
+
+    private double trackedKeys() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.windows.size();
+            }
+        }
+        return total;
+    }
+
+    private static String usernameKey(String username) {
+        return USERNAME_PREFIX + username.toLowerCase(Locale.ROOT);
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    /**
+     * One lock stripe: an LRU map of windows bounded to a fixed number of keys.
+     * All access happens while holding the stripe's monitor.
+     */
+    private static final class Stripe {
+
+        private final Map<String, SlidingWindow> windows;
+
+        Stripe(int capacity) {
+            this.windows = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, SlidingWindow> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+    }
+
+    /**
+     * Timestamps of the most recent failures for one key, kept in a ring buffer sized to
+     * the key's limit. The key is over its limit when the buffer is full and its oldest
+     * failure is still inside the window.
+     */
+    private static final class SlidingWindow {
+
+        private final long[] failures;
+        private int next;
+        private int size;
+        private long lastFailure;
+
+        SlidingWindow(int limit) {
+            this.failures = new long[Math.max(1, limit)];
+        }
+
+        void record(long now) {
+            failures[next] = now;
+            next = (next + 1) % failures.length;
+            if (size < failures.length) {
+                size++;
+            }
+            lastFailure = now;
+        }
+
+        long retryAfterMillis(long now, long windowMillis) {
+            if (size < failures.length) {
+                return 0;
+            }
+            // When the buffer is full, "next" points at the oldest failure
+            long oldest = failures[next];
+            return Math.max(0, oldest + windowMillis - now);
+        }
+    }
+}
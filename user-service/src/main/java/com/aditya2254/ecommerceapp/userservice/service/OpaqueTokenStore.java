@@ -0,0 +1,318 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory store of opaque access tokens, used when auth.token-mode=opaque.
+ *
+ * An opaque token is a random string with no meaning of its own; it only identifies a
+ * session held here. Validating it is a single hash map lookup, with no signature to
+ * verify and no database access, and revoking it takes effect immediately.
+ *
+ * Sessions are spread over shards by token hash. Each shard is a plain HashMap guarded by
+ * its own lock, so concurrent requests rarely wait for each other. Expired sessions are
+ * treated as absent on lookup and removed by a periodic sweep.
+ *
+ * Only a SHA-256 hash of each token is kept, in memory and in snapshots, so neither a heap
+ * dump nor a snapshot file reveals usable tokens.
+ *
+ * When opaque-token.snapshot-file is set, all sessions are written to that file
+ * periodically and on shutdown, and read back on startup, so users stay logged in across
+ * restarts. Sessions live in a single instance; with several instances, requests must be
+ * routed back to the instance that issued the token or users have to log in again.
+ */
+@Service
+public class OpaqueTokenStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OpaqueTokenStore.class);
+
+    /**
+     * Prefix of every opaque token, which tells them apart from JWTs.
+     */
+    public static final String TOKEN_PREFIX = "opq_";
+
+    /**
+     * Format version written at the start of a snapshot file.
+     */
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    /**
+     * A logged-in session behind an opaque token.
+     *
+     * @param userId the user's id
+     * @param username the user's username
+     * @param email the user's email address
+     * @param roles the user's role names
+     * @param familyId the refresh token family (login session) the token belongs to
+     * @param expiresAtMillis when the session expires, in milliseconds since the epoch
+     */
+    public record Session(Long userId, String username, String email, List<String> roles,
+                          String familyId, long expiresAtMillis) {
+
+        public boolean isExpired(long nowMillis) {
+            return expiresAtMillis <= nowMillis;
+        }
+    }
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final Path snapshotFile;
+
+    public OpaqueTokenStore(
+            @Value("${opaque-token.shards:64}") int shardCount,
+            @Value("${opaque-token.snapshot-file:}") String snapshotFile,
+            MeterRegistry meterRegistry
+    ) {
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1) << 1);
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = size - 1;
+        this.snapshotFile = snapshotFile == null || snapshotFile.isBlank() ? null : Path.of(snapshotFile);
+        Gauge.builder("auth.opaque.sessions", this, OpaqueTokenStore::size)
+                .description("Opaque access token sessions currently held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Creates a session for a user and returns its new token.
+     *
+     * @param user the user the token is issued to
+     * @param familyId the refresh token family of the login session
+     * @param ttlMillis how long the token is valid, in milliseconds
+     * @return the opaque token
+     */
+    public String create(User user, String familyId, long ttlMillis) {
+        byte[] random = new byte[32];
+        RANDOM.nextBytes(random);
+        String token = TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        Session session = new Session(user.getId(), user.getUsername(), user.getEmail(),
+                List.of(user.getRole().name()), familyId, System.currentTimeMillis() + ttlMillis);
+        put(hash(token), session);
+        return token;
+    }
+
+    /**
+     * Looks up the session of a token.
+     *
+     * @param token the opaque token
+     * @return the session, or null if the token is unknown, revoked or expired
+     */
+    public Session lookup(String token) {
+        String key = hash(token);
+        Shard shard = shardFor(key);
+        Session session;
+        synchronized (shard) {
+            session = shard.sessions.get(key);
+        }
+        return session == null || session.isExpired(System.currentTimeMillis()) ? null : session;
+    }
+
+    /**
+     * Revokes a single token.
+     *
+     * @param token the opaque token
+     */
+    public void revoke(String token) {
+        String key = hash(token);
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.sessions.remove(key);
+        }
+    }
+
+    /**
+     * Checks whether a token looks like an opaque token rather than a JWT.
+     *
+     * @param token the bearer token
+     * @return true if the token has the opaque token prefix
+     */
+    public static boolean isOpaqueToken(String token) {
+        return token.startsWith(TOKEN_PREFIX);
+    }
+
+    /**
+     * @return the number of sessions held, including expired ones not swept yet
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.sessions.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes expired sessions, one shard at a time.
+     */
+    @Scheduled(fixedDelayString = "${opaque-token.sweep-interval:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.sessions.values().removeIf(session -> session.isExpired(now));
+            }
+        }
+    }
+
+    /**
+     * Restores the sessions of the last snapshot, if snapshots are enabled.
+     */
+    @PostConstruct
+    public void restore() {
+        if (snapshotFile == null || !Files.exists(snapshotFile)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring opaque token snapshot {} with unknown format", snapshotFile);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                Long userId = in.readLong();
+                String username = in.readUTF();
+                String email = in.readUTF();
+                int roleCount = in.readInt();
+                List<String> roles = new ArrayList<>(roleCount);
+                for (int r = 0; r < roleCount; r++) {
+                    roles.add(in.readUTF());
+                }
+                String familyId = in.readUTF();
+                long expiresAt = in.readLong();
+                if (expiresAt > now) {
+                    put(key, new Session(userId, username, email, List.copyOf(roles),
+                            familyId.isEmpty() ? null : familyId, expiresAt));
+                    restored++;
+                }
+            }
+            log.info("Restored {} opaque token sessions from {}", restored, snapshotFile);
+        } catch (IOException e) {
+            log.warn("Unable to read opaque token snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes all unexpired sessions to the snapshot file, if snapshots are enabled.
+     *
+     * The snapshot is written to a temporary file and moved into place, so a crash while
+     * writing leaves the previous snapshot intact. Shards are copied one at a time, so
+     * requests are never blocked for the whole duration.
+     */
+    @Scheduled(initialDelayString = "${opaque-token.snapshot-interval:60000}",
+            fixedDelayString = "${opaque-token.snapshot-interval:60000}")
+    @PreDestroy
+    public void snapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Map.Entry<String, Session>> entries = new ArrayList<>();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                for (Map.Entry<String, Session> entry : shard.sessions.entrySet()) {
+                    if (!entry.getValue().isExpired(now)) {
+                        entries.add(Map.entry(entry.getKey(), entry.getValue()));
+                    }
+                }
+            }
+        }
+        try {
+            Path parent = snapshotFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Session> entry : entries) {
+                    Session session = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(session.userId());
+                    out.writeUTF(session.username());
+                    out.writeUTF(session.email());
+                    out.writeInt(session.roles().size());
+                    for (String role : session.roles()) {
+                        out.writeUTF(role);
+                    }
+                    out.writeUTF(session.familyId() == null ? "" : session.familyId());
+                    out.writeLong(session.expiresAtMillis());
+                }
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} opaque token sessions to {}", entries.size(), snapshotFile);
+        } catch (IOException e) {
+            log.warn("Unable to write opaque token snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private void put(String key, Session session) {
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.sessions.put(key, session);
+        }
+    }
+
+    private Shard shardFor(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+
+    /**
+     * Hashes a token into the key it is stored under.
+     */
+    private static String hash(String token) {
+        MessageDigest digest = SHA256.get();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * One lock stripe of the store.
+     */
+    private static final class Shard {
+        final Map<String, Session> sessions = new HashMap<>();
+    }
+}
@@ -0,0 +1,265 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.entity.RefreshToken;
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.exceptions.InvalidTokenException;
+import com.aditya2254.ecommerceapp.userservice.repository.RefreshTokenRepository;
+import com.aditya2254.ecommerceapp.userservice.util.BloomFilter;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service managing refresh tokens: issuing, rotation on use, and revocation.
+ *
+ * Every refresh token is recorded in the refresh_tokens table and belongs to a family,
+ * which starts at login or registration. Using a refresh token revokes it and issues a
+ * new one in the same family (rotation). Presenting a token that was already rotated
+ * means it has been copied, so the whole family is revoked and every holder has to log
+ * in again. Logging out revokes the family as well.
+ *
+ * Revoked token ids and family ids are mirrored into an in-memory Bloom filter. Most
+ * checks are for tokens that were never revoked, and those are answered by the filter
+ * alone without touching the database. Only when the filter reports a possible match is
+ * the database consulted, which also rules out false positives.
+ *
+ * A scheduled job deletes expired tokens and rebuilds the filter from the database, which
+ * drops expired entries from it and picks up revocations made by other instances.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    /**
+     * Prefix of revoked token ids in the Bloom filter.
+     */
+    private static final String TOKEN_KEY_PREFIX = "jti:";
+
+    /**
+     * Prefix of revoked family ids in the Bloom filter.
+     */
+    private static final String FAMILY_KEY_PREFIX = "fam:";
+
+    /**
+     * Repository storing the issued refresh tokens.
+     */
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    /**
+     * Service used to sign the refresh tokens.
+     */
+    private final JwtService jwtService;
+
+    /**
+     * Number of revoked entries the Bloom filter is sized for.
+     */
+    private final long expectedInsertions;
+
+    /**
+     * Target false positive rate of the Bloom filter.
+     */
+    private final double falsePositiveRate;
+
+    /**
+     * The filter queried by revocation checks.
+     */
+    private final AtomicReference<BloomFilter> revoked = new AtomicReference<>();
+
+    /**
+     * The filter being rebuilt, if any. Revocations are added to it as well, so none are
+     * lost between reading the database and swapping the new filter in.
+     */
+    private final AtomicReference<BloomFilter> rebuilding = new AtomicReference<>();
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            JwtService jwtService,
+            @Value("${refresh-token.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${refresh-token.bloom.false-positive-rate:0.001}") double falsePositiveRate
+    ) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revoked.set(new BloomFilter(expectedInsertions, falsePositiveRate));
+    }
+
+    /**
+     * Loads the revocations still relevant at startup.
+     */
+    @PostConstruct
+    public void init() {
+        rebuildFilter();
+    }
+
+    /**
+     * Starts a new family and issues its first refresh token.
+     *
+     * @param user the user the token is issued to
+     * @param familyId the id of the new family, also carried by the access token
+     * @return the signed refresh token
+     */
+    @Transactional
+    public String issue(User user, String familyId) {
+        return issue(user, familyId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Rotates a refresh token: revokes it and issues its replacement in the same family.
+     *
+     * The token row is locked for the duration of the transaction, so two concurrent
+     * refreshes with the same token cannot both succeed. If the token was already rotated,
+     * the whole family is revoked. That revocation is committed even though the request
+     * fails, hence noRollbackFor.
+     *
+     * @param refreshToken the verified refresh token presented by the client
+     * @param user the user the token belongs to
+     * @return the new signed refresh token
+     * @throws InvalidTokenException if the token is unknown, revoked or reused
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public String rotate(ParsedToken refreshToken, User user) {
+        String tokenId = refreshToken.getTokenId();
+        if (!refreshToken.isRefreshToken() || tokenId == null) {
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        RefreshToken current = refreshTokenRepository.findByIdForUpdate(tokenId)
+                .filter(token -> token.getUserId().equals(user.getId()))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        if (current.isRevoked()) {
+            if (current.getReplacedBy() != null) {
+                log.warn("Refresh token {} of user {} was reused, revoking family {}",
+                        tokenId, user.getId(), current.getFamilyId());
+                revokeFamily(current.getFamilyId());
+            }
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+
+        String replacementId = UUID.randomUUID().toString();
+        current.setRevoked(true);
+        current.setReplacedBy(replacementId);
+        markRevoked(TOKEN_KEY_PREFIX + tokenId);
+        return issue(user, current.getFamilyId(), replacementId);
+    }
+
+    /**
+     * Revokes every token of a family, ending that session.
+     *
+     * @param familyId the family id
+     */
+    @Transactional
+    public void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        markRevoked(FAMILY_KEY_PREFIX + familyId);
+    }
+
+    /**
+     * Checks whether a refresh token has been revoked (rotated or part of a revoked family).
+     *
+     * @param tokenId the token id (jti)
+     * @return true if the token has been revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (!revoked.get().mightContain(TOKEN_KEY_PREFIX + tokenId)) {
+            return false;
+        }
+        return refreshTokenRepository.findById(tokenId)
+                .map(RefreshToken::isRevoked)
+                .orElse(false);
+    }
+
+    /**
+     * Checks whether a family has been revoked by logout or reuse detection.
+     *
+     * Called for every authenticated request carrying a family claim, so the negative
+     * answer comes from the Bloom filter alone.
+     *
+     * @param familyId the family id
+     * @return true if the family has been revoked
+     */
+    public boolean isFamilyRevoked(String familyId) {
+        if (!revoked.get().mightContain(FAMILY_KEY_PREFIX + familyId)) {
+            return false;
+        }
+        return refreshTokenRepository.existsByFamilyIdAndRevokedTrueAndReplacedByIsNull(familyId);
+    }
+
+    /**
+     * Deletes expired refresh tokens and rebuilds the Bloom filter from what remains.
+     *
+     * A Bloom filter cannot forget entries, so rebuilding is also what keeps it from
+     * filling up with ids of tokens that have long expired.
+     */
+    @Scheduled(initialDelayString = "${refresh-token.compaction-interval:300000}",
+            fixedDelayString = "${refresh-token.compaction-interval:300000}")
+    public void compact() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(Instant.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired refresh tokens", deleted);
+        }
+        rebuildFilter();
+    }
+
+    /**
+     * Persists a token record and signs the matching JWT.
+     */
+    private String issue(User user, String familyId, String tokenId) {
+        Instant now = Instant.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(tokenId)
+                .familyId(familyId)
+                .userId(user.getId())
+                .issuedAt(now)
+                .expiresAt(now.plusMillis(jwtService.getRefreshExpiration()))
+                .build());
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(Claims.ID, tokenId);
+        claims.put(ParsedToken.CLAIM_FAMILY, familyId);
+        claims.put(ParsedToken.CLAIM_TOKEN_TYPE, ParsedToken.TOKEN_TYPE_REFRESH);
+        return jwtService.generateRefreshToken(claims, user);
+    }
+
+    /**
+     * Adds a revoked key to the active filter and to the one being rebuilt, if any.
+     */
+    private void markRevoked(String key) {
+        revoked.get().put(key);
+        BloomFilter next = rebuilding.get();
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    /**
+     * Builds a new filter from the revocations of unexpired tokens and swaps it in.
+     */
+    private synchronized void rebuildFilter() {
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveRate);
+        rebuilding.set(next);
+        try {
+            Instant now = Instant.now();
+            refreshTokenRepository.findRevokedIdsNotExpired(now)
+                    .forEach(id -> next.put(TOKEN_KEY_PREFIX + id));
+            refreshTokenRepository.findRevokedFamilyIdsNotExpired(now)
+                    .forEach(id -> next.put(FAMILY_KEY_PREFIX + id));
+            revoked.set(next);
+        } finally {
+            rebuilding.set(null);
+        }
+    }
+}
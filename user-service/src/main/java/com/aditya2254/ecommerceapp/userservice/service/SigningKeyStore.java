@@ -0,0 +1,307 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Holds the RSA keys used to sign and verify access and refresh tokens.
+ *
+ * Keys are identified by a key id ("kid") which is written into the header of every
+ * token, so a verifier can pick the right public key. The public keys are published as a
+ * JSON Web Key Set (JWKS) at GET /api/auth/jwks, which lets other services (the gateway)
+ * verify tokens locally instead of sharing a secret.
+ *
+ * Keys are read from the directory configured by jwt.signing.key-dir:
+ * - {@code <kid>.pem}: a PKCS#8 RSA private key ("BEGIN PRIVATE KEY"), usable for signing
+ * - {@code <kid>.pub.pem}: an X.509 RSA public key ("BEGIN PUBLIC KEY"), verification only
+ *
+ * The signing key is the private key named by jwt.signing.active-kid, or the private key
+ * with the greatest kid when that is not set (date-based kids such as "2026-10-01" rotate
+ * naturally). Every key in the directory stays valid for verification.
+ *
+ * Rotation without coordinated restarts:
+ * 1. Add the new private key to the directory. It is picked up by the periodic reload and,
+ *    once published in the JWKS, consumers learn it the first time they see its kid.
+ * 2. Once it is the active key, keep the old key (or only its public half) in the
+ *    directory until every token signed with it has expired, then remove it.
+ *
+ * When no directory is configured an ephemeral key pair is generated at startup, and
+ * JwtService signs with the shared HS256 secret unless jwt.signing.algorithm=RS256 asks
+ * for the ephemeral key. That is only fine for development: such tokens do not survive a
+ * restart and every instance signs with its own key.
+ */
+@Service
+public class SigningKeyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningKeyStore.class);
+
+    private static final String PUBLIC_KEY_SUFFIX = ".pub.pem";
+    private static final String PRIVATE_KEY_SUFFIX = ".pem";
+
+    /**
+     * A key that can sign tokens.
+     *
+     * @param kid the key id written into token headers
+     * @param privateKey the private key used for signing
+     * @param publicKey the matching public key
+     */
+    public record SigningKey(String kid, PrivateKey privateKey, RSAPublicKey publicKey) {
+    }
+
+    /**
+     * An immutable view of the loaded keys, swapped atomically on reload.
+     */
+    private record Snapshot(SigningKey active, Map<String, RSAPublicKey> verificationKeys,
+                            Map<String, Object> jwks, String fingerprint) {
+    }
+
+    /**
+     * Directory holding the PEM key files, or empty for an ephemeral key.
+     */
+    private final String keyDir;
+
+    /**
+     * Kid of the key to sign with, or empty to use the greatest kid.
+     */
+    private final String activeKid;
+
+    /**
+     * The currently loaded keys.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    public SigningKeyStore(
+            @Value("${jwt.signing.key-dir:}") String keyDir,
+            @Value("${jwt.signing.active-kid:}") String activeKid
+    ) {
+        this.keyDir = keyDir;
+        this.activeKid = activeKid;
+    }
+
+    /**
+     * Loads the keys at startup. Fails startup if the configured directory holds no
+     * usable signing key.
+     */
+    @PostConstruct
+    public void load() {
+        if (keyDir.isBlank()) {
+            snapshot.set(ephemeral());
+            log.info("jwt.signing.key-dir is not set, generated ephemeral key {}", snapshot.get().active().kid());
+            return;
+        }
+        Snapshot loaded = readDirectory(Path.of(keyDir));
+        snapshot.set(loaded);
+        log.info("Loaded JWT signing keys {}, signing with {}", loaded.verificationKeys().keySet(), loaded.active().kid());
+    }
+
+    /**
+     * Re-reads the key directory when its contents have changed. A directory that
+     * cannot be read or holds no usable signing key leaves the current keys in place.
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.reload-interval:60000}",
+            initialDelayString = "${jwt.signing.reload-interval:60000}")
+    public void reload() {
+        if (keyDir.isBlank()) {
+            return;
+        }
+        try {
+            Path dir = Path.of(keyDir);
+            if (fingerprint(dir).equals(snapshot.get().fingerprint())) {
+                return;
+            }
+            Snapshot loaded = readDirectory(dir);
+            snapshot.set(loaded);
+            log.info("Reloaded JWT signing keys {}, signing with {}", loaded.verificationKeys().keySet(), loaded.active().kid());
+        } catch (RuntimeException e) {
+            log.error("Failed to reload JWT signing keys from {}, keeping the current keys", keyDir, e);
+        }
+    }
+
+    /**
+     * @return true if no key directory is configured and the keys are generated at startup
+     */
+    public boolean isEphemeral() {
+        return keyDir.isBlank();
+    }
+
+    /**
+     * @return the key new tokens are signed with
+     */
+    public SigningKey getActiveKey() {
+        return snapshot.get().active();
+    }
+
+    /**
+     * Looks up a public key by kid.
+     *
+     * @param kid the key id from a token header
+     * @return the public key, or null if the kid is unknown
+     */
+    public RSAPublicKey getVerificationKey(String kid) {
+        return snapshot.get().verificationKeys().get(kid);
+    }
+
+    /**
+     * @return the public keys as a JSON Web Key Set ({"keys": [...]})
+     */
+    public Map<String, Object> getJwks() {
+        return snapshot.get().jwks();
+    }
+
+    private Snapshot readDirectory(Path dir) {
+        String fingerprint = fingerprint(dir);
+        Map<String, RSAPublicKey> publicKeys = new TreeMap<>();
+        TreeMap<String, PrivateKey> privateKeys = new TreeMap<>();
+
+        for (Path file : listPemFiles(dir)) {
+            String name = file.getFileName().toString();
+            try {
+                if (name.endsWith(PUBLIC_KEY_SUFFIX)) {
+                    String kid = name.substring(0, name.length() - PUBLIC_KEY_SUFFIX.length());
+                    publicKeys.putIfAbsent(kid, readPublicKey(file));
+                } else {
+                    String kid = name.substring(0, name.length() - PRIVATE_KEY_SUFFIX.length());
+                    RSAPrivateCrtKey privateKey = readPrivateKey(file);
+                    privateKeys.put(kid, privateKey);
+                    publicKeys.put(kid, toPublicKey(privateKey));
+                }
+            } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+                log.error("Skipping unreadable JWT key file {}", file, e);
+            }
+        }
+
+        String kid = !activeKid.isBlank() ? activeKid
+                : privateKeys.isEmpty() ? null : privateKeys.lastKey();
+        if (kid == null || !privateKeys.containsKey(kid)) {
+            throw new IllegalStateException("No private key " + (kid == null ? "" : "'" + kid + "' ") + "found in " + dir);
+        }
+        SigningKey active = new SigningKey(kid, privateKeys.get(kid), publicKeys.get(kid));
+        return new Snapshot(active, Collections.unmodifiableMap(publicKeys), toJwks(publicKeys), fingerprint);
+    }
+
+    private static Snapshot ephemeral() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            KeyPair keyPair = generator.generateKeyPair();
+            byte[] random = new byte[8];
+            new SecureRandom().nextBytes(random);
+            String kid = "ephemeral-" + HexFormat.of().formatHex(random);
+            RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+            Map<String, RSAPublicKey> publicKeys = Map.of(kid, publicKey);
+            return new Snapshot(new SigningKey(kid, keyPair.getPrivate(), publicKey), publicKeys, toJwks(publicKeys), "");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("RSA key generation not available", e);
+        }
+    }
+
+    private static List<Path> listPemFiles(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(PRIVATE_KEY_SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT key directory " + dir, e);
+        }
+    }
+
+    /**
+     * Names and modification times of the key files, used to skip reloads when nothing changed.
+     */
+    private static String fingerprint(Path dir) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path file : listPemFiles(dir)) {
+            try {
+                fingerprint.append(file.getFileName()).append('@')
+                        .append(Files.getLastModifiedTime(file).toMillis()).append(';');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    private static RSAPrivateCrtKey readPrivateKey(Path file) throws IOException, GeneralSecurityException {
+        byte[] der = readPem(file, "PRIVATE KEY");
+        return (RSAPrivateCrtKey) KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(der));
+    }
+
+    private static RSAPublicKey readPublicKey(Path file) throws IOException, GeneralSecurityException {
+        byte[] der = readPem(file, "PUBLIC KEY");
+        return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(der));
+    }
+
+    private static RSAPublicKey toPublicKey(RSAPrivateCrtKey privateKey) throws GeneralSecurityException {
+        return (RSAPublicKey) KeyFactory.getInstance("RSA")
+                .generatePublic(new RSAPublicKeySpec(privateKey.getModulus(), privateKey.getPublicExponent()));
+    }
+
+    private static byte[] readPem(Path file, String type) throws IOException {
+        String pem = Files.readString(file, StandardCharsets.US_ASCII);
+        String begin = "-----BEGIN " + type + "-----";
+        String end = "-----END " + type + "-----";
+        int start = pem.indexOf(begin);
+        int stop = pem.indexOf(end);
+        if (start < 0 || stop < start) {
+            throw new IllegalArgumentException("Expected a PEM block of type " + type);
+        }
+        return Base64.getMimeDecoder().decode(pem.substring(start + begin.length(), stop));
+    }
+
+    private static Map<String, Object> toJwks(Map<String, RSAPublicKey> publicKeys) {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        publicKeys.forEach((kid, key) -> {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "RSA");
+            jwk.put("kid", kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", "RS256");
+            jwk.put("n", base64Url(key.getModulus()));
+            jwk.put("e", base64Url(key.getPublicExponent()));
+            keys.add(Collections.unmodifiableMap(jwk));
+        });
+        return Map.of("keys", List.copyOf(keys));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // BigInteger adds a leading zero byte for the sign; JWK wants the unsigned magnitude
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,152 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.repository.UserRepository;
+import com.aditya2254.ecommerceapp.userservice.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+
+/**
+ * Answers whether a username or email is still free, mostly without touching the database.
+ *
+ * The signup form checks availability on every keystroke. Every username and email in use
+ * is put into a Bloom filter, so most checks are a few memory reads: a "definitely not
+ * there" answer means the value is free. Only when the filter says "maybe" (the value is
+ * taken, or a false positive) is the answer confirmed with existsByUsername/existsByEmail.
+ *
+ * Values are added in lower case. The unique indexes of the users table compare without
+ * case, so "Alice" has to count as a possible hit once "alice" exists.
+ *
+ * The filters are seeded from the users table on ApplicationReadyEvent and updated on
+ * registration and bulk import. Until seeding has finished every check goes to the
+ * database, so an empty filter never reports a taken value as free. Users are never
+ * deleted or renamed, so the filters never need to forget a value.
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    private static final String SCAN_SQL = "SELECT username, email FROM users";
+
+    private final UserRepository userRepository;
+
+    /**
+     * Template for the seeding scan, streaming rows as UserDirectoryIndex does.
+     */
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    private final BloomFilter usernames;
+
+    private final BloomFilter emails;
+
+    /**
+     * Whether the filters hold every user, i.e. whether their negative answers can be trusted.
+     */
+    private volatile boolean seeded;
+
+    private final Counter answeredByFilter;
+    private final Counter answeredByDatabase;
+
+    public UserAvailabilityService(
+            UserRepository userRepository,
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${user-availability.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${user-availability.bloom.false-positive-rate:0.01}") double falsePositiveRate
+    ) {
+        this.userRepository = userRepository;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.usernames = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.answeredByFilter = Counter.builder("user.availability.checks")
+                .description("Username and email availability checks")
+                .tag("answered_by", "bloom")
+                .register(meterRegistry);
+        this.answeredByDatabase = Counter.builder("user.availability.checks")
+                .description("Username and email availability checks")
+                .tag("answered_by", "database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Puts every existing username and email into the filters.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long start = System.nanoTime();
+        int[] count = {0};
+        streamingJdbcTemplate.query(SCAN_SQL, rs -> {
+            markTaken(rs.getString(1), rs.getString(2));
+            count[0]++;
+        });
+        seeded = true;
+        log.info("Seeded availability filters with {} users ({} KB) in {} ms", count[0],
+                (usernames.sizeInBytes() + emails.sizeInBytes()) / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Checks whether a username can still be registered.
+     *
+     * @param username the username
+     * @return true if no user has this username
+     */
+    public boolean isUsernameAvailable(String username) {
+        if (seeded && !usernames.mightContain(normalize(username))) {
+            answeredByFilter.increment();
+            return true;
+        }
+        answeredByDatabase.increment();
+        return !Boolean.TRUE.equals(userRepository.existsByUsername(username));
+    }
+
+    /**
+     * Checks whether an email address can still be registered.
+     *
+     * @param email the email address
+     * @return true if no user has this email address
+     */
+    public boolean isEmailAvailable(String email) {
+        if (seeded && !emails.mightContain(normalize(email))) {
+            answeredByFilter.increment();
+            return true;
+        }
+        answeredByDatabase.increment();
+        return !Boolean.TRUE.equals(userRepository.existsByEmail(email));
+    }
+
+    /**
+     * Records a newly saved user's username and email as taken.
+     *
+     * @param user the saved user
+     */
+    public void markTaken(User user) {
+        markTaken(user.getUsername(), user.getEmail());
+    }
+
+    /**
+     * Records a username and email as taken.
+     *
+     * @param username the username
+     * @param email the email address
+     */
+    public void markTaken(String username, String email) {
+        usernames.put(normalize(username));
+        emails.put(normalize(email));
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
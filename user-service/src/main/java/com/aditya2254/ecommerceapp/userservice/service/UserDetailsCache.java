@@ -0,0 +1,140 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of users keyed by username.
+ *
+ * Every authenticated request goes through JwtAuthFilter, which needs the user's
+ * details and authorities. Users change rarely, so instead of one MySQL query per
+ * request the user is loaded once and kept here for a bounded time.
+ *
+ * Entries are evicted:
+ * 1. When the cache grows beyond its maximum size (least recently used first)
+ * 2. After the configured time-to-live, so out-of-band database changes are picked up
+ * 3. When the user is updated or deleted through JPA (see UserCacheInvalidationListener)
+ *
+ * Hit rate, size and evictions are published to Micrometer as "cache.*" metrics
+ * tagged with cache=user.details.
+ *
+ * This class deliberately does not implement UserDetailsService so that it does not
+ * compete with UserService for injection points that expect that interface.
+ */
+@Service
+public class UserDetailsCache {
+
+    /**
+     * Repository used to load users on a cache miss.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The cache itself, keyed by username.
+     */
+    private final Cache<String, User> users;
+
+    /**
+     * Username each cached user was loaded under, by user id, so a user can be evicted
+     * by id without scanning the cache. Holds an entry only while the user is cached.
+     */
+    private final Map<Long, String> usernamesById = new ConcurrentHashMap<>();
+
+    public UserDetailsCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${user-cache.max-size:10000}") long maxSize,
+            @Value("${user-cache.ttl:300000}") long ttlMillis
+    ) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .evictionListener((String username, User user, RemovalCause cause) -> {
+                    if (user != null && user.getId() != null) {
+                        usernamesById.remove(user.getId(), username);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "user.details");
+    }
+
+    /**
+     * Loads a user by username, from the cache when possible.
+     *
+     * @param username the username to look up
+     * @return the user details
+     * @throws UsernameNotFoundException if no user has this username
+     */
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return getUser(username);
+    }
+
+    /**
+     * Same as {@link #loadUserByUsername(String)} but returns the User entity.
+     *
+     * The returned instance is shared between threads and must not be modified.
+     *
+     * @param username the username to look up
+     * @return the user
+     * @throws UsernameNotFoundException if no user has this username
+     */
+    public User getUser(String username) throws UsernameNotFoundException {
+        // Misses are not cached, so a user registered a moment later is found on the next call
+        User user = users.get(username, this::load);
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
+        return user;
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * Entries are matched both by username and by id, so a user whose username has
+     * just been changed is removed under its old name too. Both are direct lookups.
+     *
+     * @param user the user that changed
+     */
+    public void invalidate(User user) {
+        if (user.getUsername() != null) {
+            users.invalidate(user.getUsername());
+        }
+        if (user.getId() != null) {
+            String cachedUsername = usernamesById.remove(user.getId());
+            if (cachedUsername != null) {
+                users.invalidate(cachedUsername);
+            }
+        }
+    }
+
+    /**
+     * Removes all users from the cache.
+     */
+    public void invalidateAll() {
+        users.invalidateAll();
+        usernamesById.clear();
+    }
+
+    private User load(String username) {
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user != null && user.getId() != null) {
+            usernamesById.put(user.getId(), username);
+        }
+        return user;
+    }
+}
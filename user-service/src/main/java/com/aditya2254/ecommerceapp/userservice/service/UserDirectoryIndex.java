@@ -0,0 +1,246 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.dto.UserDTO;
+import com.aditya2254.ecommerceapp.userservice.dto.UserSearchPage;
+import com.aditya2254.ecommerceapp.userservice.entity.Role;
+import com.aditya2254.ecommerceapp.userservice.entity.User;
+import com.aditya2254.ecommerceapp.userservice.exceptions.InvalidCursorException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory prefix index of users by username and email, for the admin user search.
+ *
+ * The users table only has unique indexes for exact lookups, so a prefix search in SQL
+ * (LIKE 'abc%') on a case-insensitive match would scan the table. Instead, every user is
+ * kept in two sorted maps, one keyed by lower-case username and one by lower-case email.
+ * A prefix search is then a range scan of a sorted map: all keys from the prefix up to
+ * the prefix followed by the highest character.
+ *
+ * Keys end with the user id, so they are unique even if two values only differ in case,
+ * and a page of results can be continued from its last key (keyset pagination). Every page
+ * therefore costs a seek plus one step per result, however deep into the results it is.
+ *
+ * The index is filled at startup by a single streamed scan of the users table, before the
+ * service reports itself ready. Registrations add their user afterwards, and a bulk import
+ * adds the users it inserted by scanning for ids above the highest one indexed. The
+ * application has no way to change a username or email or to delete a user, so the index
+ * never needs to drop entries.
+ */
+@Service
+public class UserDirectoryIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDirectoryIndex.class);
+
+    /**
+     * Separates the indexed value from the user id in a key. Sorts before every character
+     * allowed in usernames and emails, so "ann" and all its ids come before "anna".
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final String SCAN_SQL = "SELECT id, username, email, role FROM users WHERE id > ? ORDER BY id";
+
+    /**
+     * Fields a search can match on.
+     */
+    public enum SearchField { USERNAME, EMAIL }
+
+    /**
+     * A user as held by the index.
+     */
+    private record Entry(long id, String username, String email, Role role) {
+
+        UserDTO toUserDTO() {
+            return UserDTO.builder()
+                    .id(id)
+                    .username(username)
+                    .email(email)
+                    .roles(List.of(role.name()))
+                    .build();
+        }
+    }
+
+    private final NavigableMap<String, Entry> byUsername = new ConcurrentSkipListMap<>();
+
+    private final NavigableMap<String, Entry> byEmail = new ConcurrentSkipListMap<>();
+
+    /**
+     * Highest user id indexed so far.
+     */
+    private final AtomicLong highestId = new AtomicLong();
+
+    /**
+     * Number of users indexed, kept separately because the size of a skip list map is
+     * counted by walking it.
+     */
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Template for the table scans. Connector/J streams the rows of a result set one by
+     * one only when the fetch size is Integer.MIN_VALUE; with any other value it reads the
+     * whole result into memory first.
+     */
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    /**
+     * Largest page a search returns.
+     */
+    private final int maxPageSize;
+
+    public UserDirectoryIndex(
+            DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${user-directory.max-page-size:100}") int maxPageSize
+    ) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.maxPageSize = maxPageSize;
+        Gauge.builder("user.directory.size", size, AtomicLong::get)
+                .description("Users held by the admin search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fills the index with all users once the application has started.
+     *
+     * Runs before the application is marked ready to accept traffic, so a started
+     * instance always searches the full directory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.nanoTime();
+        int added = indexUsersAfter(0);
+        log.info("Indexed {} users for directory search in {} ms",
+                added, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns the highest user id indexed so far. Take it before inserts that bypass JPA,
+     * such as the bulk import, and pass it to {@link #indexUsersAfter(long)} afterwards.
+     * Reading it only afterwards would miss inserted users whenever a registration with a
+     * higher id was indexed in the meantime.
+     *
+     * @return the highest indexed user id, 0 if the index is empty
+     */
+    public long highWaterMark() {
+        return highestId.get();
+    }
+
+    /**
+     * Adds the users with a higher id than the given one. Users already in the index
+     * are replaced with their current state.
+     *
+     * @param afterId the id to scan from, exclusive
+     * @return the number of users read
+     */
+    public int indexUsersAfter(long afterId) {
+        int[] added = {0};
+        streamingJdbcTemplate.query(SCAN_SQL, rs -> {
+            add(new Entry(rs.getLong(1), rs.getString(2), rs.getString(3), Role.valueOf(rs.getString(4))));
+            added[0]++;
+        }, afterId);
+        return added[0];
+    }
+
+    /**
+     * Adds a single user, e.g. right after registration.
+     *
+     * @param user the saved user
+     */
+    public void add(User user) {
+        add(new Entry(user.getId(), user.getUsername(), user.getEmail(), user.getRole()));
+    }
+
+    /**
+     * Finds users whose username or email starts with a prefix, ignoring case.
+     *
+     * Results are ordered by the searched field. To get the next page, pass the
+     * nextCursor of the previous page together with the same field and prefix.
+     *
+     * @param field the field to match
+     * @param prefix the prefix to look for; an empty prefix lists all users
+     * @param limit the page size, capped at user-directory.max-page-size
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @return one page of matching users
+     * @throws InvalidCursorException if the cursor is malformed or belongs to another prefix
+     */
+    public UserSearchPage search(SearchField field, String prefix, int limit, String cursor) {
+        NavigableMap<String, Entry> index = field == SearchField.EMAIL ? byEmail : byUsername;
+        String from = normalize(prefix == null ? "" : prefix);
+        String to = from + Character.MAX_VALUE;
+        String after = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+        if (after != null && (!after.startsWith(from) || after.compareTo(to) >= 0)) {
+            throw new InvalidCursorException("Cursor does not belong to this search");
+        }
+        NavigableMap<String, Entry> range = after == null
+                ? index.subMap(from, true, to, false)
+                : index.subMap(after, false, to, false);
+
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<UserDTO> users = new ArrayList<>(Math.min(pageSize, 16));
+        String lastKey = null;
+        boolean more = false;
+        for (Map.Entry<String, Entry> match : range.entrySet()) {
+            if (users.size() == pageSize) {
+                more = true;
+                break;
+            }
+            users.add(match.getValue().toUserDTO());
+            lastKey = match.getKey();
+        }
+        return UserSearchPage.builder()
+                .users(users)
+                .nextCursor(more ? encodeCursor(lastKey) : null)
+                .build();
+    }
+
+    private void add(Entry entry) {
+        if (byUsername.put(key(entry.username(), entry.id()), entry) == null) {
+            size.incrementAndGet();
+        }
+        byEmail.put(key(entry.email(), entry.id()), entry);
+        highestId.accumulateAndGet(entry.id(), Math::max);
+    }
+
+    private static String key(String value, long id) {
+        return normalize(value) + KEY_SEPARATOR + id;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (key.indexOf(KEY_SEPARATOR) < 0) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return key;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.aditya2254.ecommerceapp.userservice.service;
+
+import com.aditya2254.ecommerceapp.userservice.dto.UserImportReport;
+import com.aditya2254.ecommerceapp.userservice.entity.Role;
+import com.aditya2254.ecommerceapp.userservice.exceptions.ImportInProgressException;
+import com.aditya2254.ecommerceapp.userservice.repository.UserRepository;
+import com.aditya2254.ecommerceapp.userservice.util.AdaptiveBCryptPasswordEncoder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Service for importing users in bulk, e.g. when migrating customers from another platform.
+ *
+ * Registering users one by one through AuthService costs a BCrypt hash, a JPA save and
+ * two signed tokens per user. This service instead streams the input and works in chunks:
+ *
+ * 1. Records are parsed from NDJSON or CSV as they are read, never holding the whole input
+ * 2. Users whose username or email already exists are skipped before any hashing
+ * 3. Passwords are hashed in parallel on a pool with one thread per core; values that are
+ *    already BCrypt hashes ($2a$, $2b$ or $2y$) are stored as they are
+ * 4. Each chunk is written with one JDBC batch insert, which MySQL Connector/J rewrites
+ *    into multi-row INSERT statements (rewriteBatchedStatements=true in the JDBC URL)
+ *
+ * Hashing of a chunk overlaps with writing the previous one. No tokens are issued.
+ *
+ * Rows are inserted with INSERT IGNORE, so an import that was interrupted can simply be
+ * run again. Only one import runs at a time.
+ *
+ * Accepted record fields: username, email, password or passwordHash, and optionally role
+ * (a Role name, ROLE_USER by default). CSV input needs a header line with these names.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    /**
+     * Matches a complete BCrypt hash in the formats produced by common libraries.
+     */
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO users (username, email, password, role) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Supported input formats.
+     */
+    public enum Format { NDJSON, CSV }
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final UserAvailabilityService userAvailabilityService;
+
+    /**
+     * Plain BCrypt encoder with the calibrated cost. The import uses its own pool instead
+     * of the bounded login encoder, so a migration cannot starve interactive logins of
+     * hashing threads.
+     */
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Number of records hashed and written together.
+     */
+    private final int batchSize;
+
+    /**
+     * Number of hashing threads for an import.
+     */
+    private final int threads;
+
+    /**
+     * Maximum number of rejection reasons kept for the report.
+     */
+    private final int maxErrors;
+
+    /**
+     * Whether an import is currently running.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public UserImportService(
+            UserRepository userRepository,
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            AdaptiveBCryptPasswordEncoder bcryptPasswordEncoder,
+            UserDirectoryIndex userDirectoryIndex,
+            UserAvailabilityService userAvailabilityService,
+            @Value("${user-import.batch-size:1000}") int batchSize,
+            @Value("${user-import.threads:0}") int threads,
+            @Value("${user-import.max-errors:100}") int maxErrors
+    ) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.passwordEncoder = bcryptPasswordEncoder;
+        this.userDirectoryIndex = userDirectoryIndex;
+        this.userAvailabilityService = userAvailabilityService;
+        this.batchSize = batchSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Imports every user record of the input.
+     *
+     * @param input the NDJSON or CSV input, read until its end
+     * @param format the input format
+     * @return a report with counts and throughput
+     * @throws ImportInProgressException if another import is running
+     * @throws IOException if the input cannot be read
+     */
+    public UserImportReport importUsers(Reader input, Format format) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new ImportInProgressException("Another user import is already running");
+        }
+        // Taken before the first insert, so registrations during the import cannot move it past imported ids
+        long indexedUpTo = userDirectoryIndex.highWaterMark();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return runImport(new BufferedReader(input), format, hashingPool);
+        } finally {
+            hashingPool.shutdownNow();
+            indexImportedUsers(indexedUpTo);
+            running.set(false);
+        }
+    }
+
+    /**
+     * Adds the users inserted by an import, including a failed one, to the admin search
+     * index. The import writes with plain JDBC, so the index cannot learn about them any
+     * other way.
+     *
+     * @param indexedUpTo the highest indexed user id when the import started
+     */
+    private void indexImportedUsers(long indexedUpTo) {
+        try {
+            int indexed = userDirectoryIndex.indexUsersAfter(indexedUpTo);
+            log.info("Added {} imported users to the directory index", indexed);
+        } catch (RuntimeException e) {
+            log.warn("Unable to add imported users to the directory index: {}", e.getMessage());
+        }
+    }
+
+    private UserImportReport runImport(BufferedReader reader, Format format, ExecutorService hashingPool)
+            throws IOException {
+        long start = System.nanoTime();
+        ImportState state = new ImportState();
+        List<ImportRecord> chunk = new ArrayList<>(batchSize);
+        CompletableFuture<List<Object[]>> pending = null;
+        String[] csvHeader = null;
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvHeader == null) {
+                csvHeader = parseCsvLine(line).stream()
+                        .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                        .toArray(String[]::new);
+                continue;
+            }
+            state.records++;
+            ImportRecord record;
+            try {
+                record = format == Format.CSV ? fromCsv(csvHeader, line) : fromJson(line);
+                record.validate();
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                state.reject(lineNumber, e.getMessage(), maxErrors);
+                continue;
+            }
+            chunk.add(record);
+            if (chunk.size() == batchSize) {
+                CompletableFuture<List<Object[]>> hashed = hashChunk(removeExisting(chunk, state), hashingPool, state);
+                if (pending != null) {
+                    write(pending.join(), state);
+                }
+                pending = hashed;
+                chunk = new ArrayList<>(batchSize);
+            }
+        }
+        CompletableFuture<List<Object[]>> hashed = hashChunk(removeExisting(chunk, state), hashingPool, state);
+        if (pending != null) {
+            write(pending.join(), state);
+        }
+        write(hashed.join(), state);
+
+        long durationMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        UserImportReport report = UserImportReport.builder()
+                .records(state.records)
+                .imported(state.imported)
+                .skipped(state.skipped)
+                .rejected(state.rejected)
+                .passwordsHashed(state.hashed.get())
+                .durationMillis(durationMillis)
+                .recordsPerSecond(state.records * 1000.0 / durationMillis)
+                .errors(state.errors)
+                .build();
+        log.info("User import finished: {} records, {} imported, {} skipped, {} rejected in {} ms ({} records/s)",
+                report.getRecords(), report.getImported(), report.getSkipped(), report.getRejected(),
+                report.getDurationMillis(), Math.round(report.getRecordsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Drops records whose username or email exists in the database or earlier in the chunk.
+     * Runs before hashing so duplicates cost no BCrypt time. Duplicates spread over chunks
+     * that are in flight together are caught by INSERT IGNORE instead.
+     */
+    private List<ImportRecord> removeExisting(List<ImportRecord> chunk, ImportState state) {
+        if (chunk.isEmpty()) {
+            return chunk;
+        }
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        userRepository.findExistingUsernames(chunk.stream().map(r -> r.username).toList())
+                .forEach(username -> takenUsernames.add(username.toLowerCase(Locale.ROOT)));
+        userRepository.findExistingEmails(chunk.stream().map(r -> r.email).toList())
+                .forEach(email -> takenEmails.add(email.toLowerCase(Locale.ROOT)));
+
+        List<ImportRecord> fresh = new ArrayList<>(chunk.size());
+        for (ImportRecord record : chunk) {
+            String username = record.username.toLowerCase(Locale.ROOT);
+            String email = record.email.toLowerCase(Locale.ROOT);
+            if (takenUsernames.contains(username) || takenEmails.contains(email)
+                    || !seenUsernames.add(username) || !seenEmails.add(email)) {
+                state.skipped++;
+            } else {
+                fresh.add(record);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Hashes the passwords of a chunk in parallel and completes with the rows to insert.
+     */
+    private CompletableFuture<List<Object[]>> hashChunk(List<ImportRecord> records, ExecutorService hashingPool,
+                                                       ImportState state) {
+        List<CompletableFuture<Object[]>> rows = new ArrayList<>(records.size());
+        for (ImportRecord record : records) {
+            if (record.passwordHash != null) {
+                rows.add(CompletableFuture.completedFuture(record.toRow(record.passwordHash)));
+            } else {
+                rows.add(CompletableFuture.supplyAsync(() -> {
+                    String hash = passwordEncoder.encode(record.password);
+                    state.hashed.incrementAndGet();
+                    return record.toRow(hash);
+                }, hashingPool));
+            }
+        }
+        return CompletableFuture.allOf(rows.toArray(CompletableFuture[]::new))
+                .thenApply(done -> rows.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Writes a chunk with one JDBC batch.
+     */
+    private void write(List<Object[]> rows, ImportState state) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        for (int i = 0; i < counts.length; i++) {
+            int count = counts[i];
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                state.imported++;
+                userAvailabilityService.markTaken((String) rows.get(i)[0], (String) rows.get(i)[1]);
+            } else {
+                // Ignored by INSERT IGNORE, i.e. inserted concurrently by someone else
+                state.skipped++;
+            }
+        }
+    }
+
+    private ImportRecord fromJson(String line) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Record is not a JSON object");
+        }
+        ImportRecord record = new ImportRecord();
+        record.username = text(node, "username");
+        record.email = text(node, "email");
+        record.password = text(node, "password");
+        record.passwordHash = text(node, "passwordHash");
+        record.role = text(node, "role");
+        return record;
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static ImportRecord fromCsv(String[] header, String line) {
+        List<String> values = parseCsvLine(line);
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            fields.put(header[i], value.isEmpty() ? null : value);
+        }
+        ImportRecord record = new ImportRecord();
+        record.username = fields.get("username");
+        record.email = fields.get("email");
+        record.password = fields.get("password");
+        record.passwordHash = fields.get("passwordhash");
+        record.role = fields.get("role");
+        return record;
+    }
+
+    /**
+     * Splits one CSV line into fields. Fields may be quoted with double quotes, and a
+     * doubled quote inside a quoted field stands for one quote. Fields cannot span lines.
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * One user record of the input.
+     */
+    private static final class ImportRecord {
+        String username;
+        String email;
+        String password;
+        String passwordHash;
+        String role;
+
+        void validate() {
+            if (username == null || username.isBlank()) {
+                throw new IllegalArgumentException("username is required");
+            }
+            if (email == null || email.isBlank() || email.indexOf('@') < 1) {
+                throw new IllegalArgumentException("a valid email is required");
+            }
+            if (passwordHash != null && !BCRYPT_HASH.matcher(passwordHash).matches()) {
+                throw new IllegalArgumentException("passwordHash is not a BCrypt hash");
+            }
+            if (passwordHash == null && (password == null || password.isEmpty())) {
+                throw new IllegalArgumentException("password or passwordHash is required");
+            }
+            if (role == null) {
+                role = Role.ROLE_USER.name();
+            } else {
+                try {
+                    role = Role.valueOf(role.trim().toUpperCase(Locale.ROOT)).name();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("unknown role " + role);
+                }
+            }
+        }
+
+        Object[] toRow(String hash) {
+            return new Object[]{username, email, hash, role};
+        }
+    }
+
+    /**
+     * Counters of a running import. Only the hashed count is updated from pool threads.
+     */
+    private static final class ImportState {
+        long records;
+        long imported;
+        long skipped;
+        long rejected;
+        final AtomicLong hashed = new AtomicLong();
+        final List<String> errors = new ArrayList<>();
+
+        void reject(long lineNumber, String reason, int maxErrors) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add("line " + lineNumber + ": " + reason);
+            }
+        }
+    }
+}
@@ -3,13 +3,17 @@ package com.aditya2254.ecommerceapp.userservice.service;
 import com.aditya2254.ecommerceapp.userservice.dto.UserDTO;
 import com.aditya2254.ecommerceapp.userservice.entity.User;
 import com.aditya2254.ecommerceapp.userservice.repository.UserRepository;
+import com.aditya2254.ecommerceapp.userservice.repository.UserSummary;
+import com.aditya2254.ecommerceapp.userservice.util.ParsedToken;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Service class for handling user-related operations.
@@ -35,6 +39,11 @@ public class UserService implements UserDetailsService {
      */
     private final UserRepository userRepository;
 
+    /**
+     * Cache of users keyed by username, shared with JwtAuthFilter.
+     */
+    private final UserDetailsCache userDetailsCache;
+
     /**
      * Loads a user by their username.
      * 
@@ -61,14 +70,90 @@ public class UserService implements UserDetailsService {
      * into a UserProfileResponse DTO, which contains only the information that
      * is safe to expose to clients.
      * 
+     * The user is read through the UserDetailsCache, which JwtAuthFilter has usually
+     * populated for this request already, so no extra database query is needed.
+     * 
      * @param username the username of the user whose profile to retrieve
      * @return a UserProfileResponse containing the user's profile information
      * @throws UsernameNotFoundException if the user is not found
      */
     public UserDTO getUserProfile(String username) {
+        return toUserDTO(userDetailsCache.getUser(username));
+    }
+
+    /**
+     * Retrieves a user's profile information straight from the database.
+     * 
+     * Unlike {@link #getUserProfile(String)} this bypasses every cache and reflects
+     * changes committed a moment ago. Used when a caller explicitly asks for fresh data.
+     * 
+     * @param username the username of the user whose profile to retrieve
+     * @return the user's profile information
+     * @throws UsernameNotFoundException if the user is not found
+     */
+    public UserDTO getFreshUserProfile(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        return toUserDTO(user);
+    }
+
+    /**
+     * Builds a user's profile from the claims of their access token.
+     * 
+     * Access tokens carry the user's id, email and roles (see AuthService), so this needs
+     * no database access at all. The profile is as fresh as the token, i.e. at most one
+     * access-token lifetime old. Tokens without these claims fall back to
+     * {@link #getUserProfile(String)}.
+     * 
+     * @param token the verified access token of the current request
+     * @return the user's profile information
+     */
+    public UserDTO getUserProfile(ParsedToken token) {
+        if (!token.hasProfileClaims()) {
+            return getUserProfile(token.getUsername());
+        }
+        return UserDTO.builder()
+                .id(token.getUserId())
+                .username(token.getUsername())
+                .email(token.getEmail())
+                .roles(token.getRoles())
+                .build();
+    }
 
+    /**
+     * Looks up the profiles of several users at once, for other services.
+     * 
+     * Duplicate and null ids are dropped, then all users are read with one IN query that
+     * selects only the profile columns (see UserSummary). Ids without a user are skipped.
+     * 
+     * @param ids the ids of the users to look up
+     * @return the profiles of the users that exist, in no particular order
+     */
+    public List<UserDTO> getUserProfiles(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findSummariesByIdIn(distinctIds).stream()
+                .map(summary -> UserDTO.builder()
+                        .id(summary.getId())
+                        .username(summary.getUsername())
+                        .email(summary.getEmail())
+                        .roles(List.of(summary.getRole().name()))
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Converts a User entity into the profile DTO exposed to clients.
+     * 
+     * @param user the user entity
+     * @return the user's profile information
+     */
+    private UserDTO toUserDTO(User user) {
         return UserDTO.builder()
                 .id(user.getId())
                 .username(user.getUsername())
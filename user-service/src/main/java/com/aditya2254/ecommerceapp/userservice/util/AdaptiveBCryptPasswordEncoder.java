@@ -0,0 +1,138 @@
+package com.aditya2254.ecommerceapp.userservice.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCryptPasswordEncoder whose cost factor is chosen to fit a latency budget.
+ *
+ * Every BCrypt hash records the cost it was created with ("$2a$12$..."), so hashes of
+ * different costs can be verified side by side. This encoder flags every hash whose cost
+ * lies outside its accepted range in upgradeEncoding, so AuthService can rehash the
+ * password on the next successful login. Changing the cost therefore needs no
+ * migration: users move to the new cost as they log in.
+ *
+ * With a pinned cost the accepted range is that single cost. A cost picked by
+ * {@link #calibrate(Duration, int, int)} varies with timing jitter and hardware, so
+ * instances and restarts may choose, say, 11 and 12. Its range should then accept
+ * slightly weaker hashes and every stronger one up to the calibration maximum; otherwise
+ * users would be rehashed back and forth between the instances' costs.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    /**
+     * Cost factor of the hashes produced by this encoder.
+     */
+    private final int strength;
+
+    /**
+     * Lowest cost of a stored hash that is kept as it is.
+     */
+    private final int minAcceptedCost;
+
+    /**
+     * Highest cost of a stored hash that is kept as it is.
+     */
+    private final int maxAcceptedCost;
+
+    /**
+     * Creates an encoder that rehashes every hash whose cost differs from its own.
+     *
+     * @param strength the cost of new hashes
+     */
+    public AdaptiveBCryptPasswordEncoder(int strength) {
+        this(strength, strength, strength);
+    }
+
+    /**
+     * Creates an encoder that keeps stored hashes with a cost within a range.
+     *
+     * @param strength the cost of new hashes
+     * @param minAcceptedCost the lowest cost not rehashed
+     * @param maxAcceptedCost the highest cost not rehashed
+     */
+    public AdaptiveBCryptPasswordEncoder(int strength, int minAcceptedCost, int maxAcceptedCost) {
+        super(strength);
+        if (minAcceptedCost > strength || maxAcceptedCost < strength) {
+            throw new IllegalArgumentException("The accepted costs " + minAcceptedCost + ".." + maxAcceptedCost
+                    + " must include the strength " + strength);
+        }
+        this.strength = strength;
+        this.minAcceptedCost = minAcceptedCost;
+        this.maxAcceptedCost = maxAcceptedCost;
+    }
+
+    /**
+     * @return the cost factor of new hashes
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Checks whether a hash was made with a cost outside the accepted range.
+     *
+     * @param encodedPassword the stored hash
+     * @return true if the password should be hashed again
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && (cost < minAcceptedCost || cost > maxAcceptedCost);
+    }
+
+    /**
+     * Reads the cost factor from a BCrypt hash.
+     *
+     * @param encodedPassword the hash
+     * @return the cost, or -1 if the value is not a BCrypt hash
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Finds the highest cost whose hash time stays within the target on this machine.
+     *
+     * A hash at the minimum cost is timed a few times (after a warm-up) and the fastest
+     * run is taken as the baseline. Every extra cost step doubles the work, so the cost is
+     * the minimum plus the number of doublings that still fit the target.
+     *
+     * @param target the time one hash may take
+     * @param minStrength the lowest acceptable cost, used even if it exceeds the target
+     * @param maxStrength the highest cost to use
+     * @return the calibrated cost
+     */
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration-warm-up");
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration-" + i);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        int strength = minStrength;
+        long estimate = fastest;
+        while (strength < maxStrength && estimate * 2 <= target.toNanos()) {
+            estimate *= 2;
+            strength++;
+        }
+        log.info("Calibrated BCrypt cost {} (~{} ms per hash, target {} ms, cost {} took {} ms)",
+                strength, estimate / 1_000_000, target.toMillis(), minStrength, fastest / 1_000_000);
+        return strength;
+    }
+}
@@ -0,0 +1,115 @@
+package com.aditya2254.ecommerceapp.userservice.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compact, thread-safe Bloom filter for strings.
+ *
+ * A Bloom filter answers "have I seen this value?" with either "definitely not" or
+ * "probably yes". It never gives a false negative, and false positives happen at roughly
+ * the rate the filter was sized for. That makes it a cheap first check in front of an
+ * authoritative store: a "definitely not" answer needs no further lookup, and only the
+ * rare "probably yes" answers have to be confirmed.
+ *
+ * The bits are kept in an AtomicLongArray, so put and mightContain can be called from
+ * any number of threads without locking. Values cannot be removed; to forget values,
+ * build a new filter and swap it in.
+ */
+public final class BloomFilter {
+
+    /**
+     * The bit array, 64 bits per element.
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * Number of usable bits.
+     */
+    private final long bitCount;
+
+    /**
+     * Number of bit positions set per value.
+     */
+    private final int hashCount;
+
+    /**
+     * Creates a filter sized for the expected number of values and false positive rate.
+     *
+     * @param expectedInsertions how many values the filter is expected to hold
+     * @param falsePositiveRate the acceptable false positive rate, e.g. 0.001
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * ln2));
+    }
+
+    /**
+     * Adds a value to the filter.
+     *
+     * @param value the value to add
+     */
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = bits.get(word);
+            while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                current = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a value may have been added.
+     *
+     * @param value the value to look up
+     * @return false if the value was definitely never added, true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the memory used by the bit array, in bytes
+     */
+    public long sizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    /**
+     * 64-bit FNV-1a over the string's characters, finished with a mixing step.
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizer from SplitMix64, spreads every input bit over the whole output.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,148 @@
+package com.aditya2254.ecommerceapp.userservice.util;
+
+import com.aditya2254.ecommerceapp.userservice.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * PasswordEncoder that runs the hashing of another encoder on a dedicated, bounded executor.
+ *
+ * BCrypt is deliberately CPU-expensive. When it runs directly on Tomcat request threads, a
+ * burst of logins can occupy every worker with hashing and starve cheap requests. This
+ * encoder hands each encode/matches call to a small pool sized to the CPU count, so at most
+ * that many hashes run at once. The calling thread waits for the result without burning CPU.
+ *
+ * The pool's queue is bounded. When it is full the call is rejected immediately with a
+ * PasswordHashingUnavailableException (HTTP 503) instead of piling up more waiting requests.
+ *
+ * Metrics:
+ * - auth.password.queue.wait: time between submission and the start of hashing
+ * - auth.password.hash.time: time spent hashing
+ * - auth.password.rejected: calls rejected because the queue was full
+ * All three are tagged with operation=encode or operation=matches.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    /**
+     * The encoder doing the actual hashing, e.g. BCryptPasswordEncoder.
+     */
+    private final PasswordEncoder delegate;
+
+    /**
+     * Bounded pool the hashing runs on.
+     */
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeQueueWait;
+    private final Timer matchesQueueWait;
+    private final Timer encodeTime;
+    private final Timer matchesTime;
+    private final Counter encodeRejected;
+    private final Counter matchesRejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ThreadPoolExecutor executor, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.encodeQueueWait = queueWaitTimer(meterRegistry, "encode");
+        this.matchesQueueWait = queueWaitTimer(meterRegistry, "matches");
+        this.encodeTime = hashTimer(meterRegistry, "encode");
+        this.matchesTime = hashTimer(meterRegistry, "matches");
+        this.encodeRejected = rejectedCounter(meterRegistry, "encode");
+        this.matchesRejected = rejectedCounter(meterRegistry, "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), encodeQueueWait, encodeTime, encodeRejected);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), matchesQueueWait, matchesTime, matchesRejected);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only inspects the hash prefix, cheap enough for the calling thread
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Runs the hashing task on the executor and waits for its result.
+     *
+     * @param task the hashing work
+     * @param queueWait timer for the time spent in the queue
+     * @param hashTime timer for the time spent hashing
+     * @param rejected counter for rejected submissions
+     * @return the task's result
+     * @param <T> the result type
+     * @throws PasswordHashingUnavailableException if the executor's queue is full
+     */
+    private <T> T run(Supplier<T> task, Timer queueWait, Timer hashTime, Counter rejected) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    hashTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException("Too many concurrent password operations, please retry shortly");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private static Timer queueWaitTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.queue.wait")
+                .description("Time a password operation waited for a hashing thread")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash.time")
+                .description("Time spent hashing or verifying a password")
+                .tag("operation", operation)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String operation) {
+        return Counter.builder("auth.password.rejected")
+                .description("Password operations rejected because the hashing queue was full")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,204 @@
+package com.aditya2254.ecommerceapp.userservice.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mints compact JWS tokens (RS256 or HS256) without going through the jjwt builder.
+ *
+ * Building a token with jjwt allocates a header and a claims map, Date objects, a Jackson
+ * serialization of both, and looks up and initializes a new Signature or Mac for every
+ * token. Tokens minted here are the same JWTs, but:
+ *
+ * 1. The encoded header segment is computed once per algorithm and key id and reused
+ * 2. Claims are written straight to JSON; strings, numbers, booleans and collections of
+ *    those are handled directly, anything else goes through Jackson
+ * 3. Each thread keeps its own Signature (RS256) or Mac (HS256), initialized once per key;
+ *    both reset themselves after signing, so they are reused as they are
+ *
+ * The registered claims "sub", "iat" and "exp" are written after the custom claims, with
+ * "iat" and "exp" in seconds since the epoch, as jjwt does.
+ */
+public final class JwtMinter {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private static final ObjectMapper FALLBACK_MAPPER = new ObjectMapper();
+
+    /**
+     * Encoded header segments (including the trailing '.') by algorithm and key id.
+     */
+    private final Map<String, String> headers = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<KeyedSigner<Signature>> rsaSigners = new ThreadLocal<>();
+
+    private final ThreadLocal<KeyedSigner<Mac>> hmacSigners = new ThreadLocal<>();
+
+    /**
+     * Mints an RS256 token carrying the key id in its header.
+     *
+     * @param kid the id of the signing key
+     * @param privateKey the RSA private key
+     * @param claims the custom claims
+     * @param subject the subject claim
+     * @param issuedAtMillis the issue time in milliseconds since the epoch
+     * @param expirationMillis the expiry time in milliseconds since the epoch
+     * @return the compact signed token
+     */
+    public String mintRs256(String kid, PrivateKey privateKey, Map<String, Object> claims,
+                            String subject, long issuedAtMillis, long expirationMillis) {
+        String signingInput = signingInput(header("RS256", kid), claims, subject, issuedAtMillis, expirationMillis);
+        try {
+            Signature signature = rsaSigner(privateKey);
+            signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + '.' + BASE64_URL.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token with RS256", e);
+        }
+    }
+
+    /**
+     * Mints an HS256 token without a key id.
+     *
+     * @param key the HMAC key
+     * @param claims the custom claims
+     * @param subject the subject claim
+     * @param issuedAtMillis the issue time in milliseconds since the epoch
+     * @param expirationMillis the expiry time in milliseconds since the epoch
+     * @return the compact signed token
+     */
+    public String mintHs256(Key key, Map<String, Object> claims,
+                            String subject, long issuedAtMillis, long expirationMillis) {
+        String signingInput = signingInput(header("HS256", null), claims, subject, issuedAtMillis, expirationMillis);
+        try {
+            Mac mac = hmacSigner(key);
+            return signingInput + '.' + BASE64_URL.encodeToString(
+                    mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign token with HS256", e);
+        }
+    }
+
+    private String header(String algorithm, String kid) {
+        return headers.computeIfAbsent(kid == null ? algorithm : algorithm + ':' + kid, cacheKey -> {
+            StringBuilder json = new StringBuilder(64).append("{\"alg\":\"").append(algorithm).append('"');
+            if (kid != null) {
+                json.append(",\"kid\":");
+                appendString(json, kid);
+            }
+            json.append('}');
+            return BASE64_URL.encodeToString(json.toString().getBytes(StandardCharsets.UTF_8)) + '.';
+        });
+    }
+
+    private static String signingInput(String header, Map<String, Object> claims, String subject,
+                                       long issuedAtMillis, long expirationMillis) {
+        StringBuilder json = new StringBuilder(256).append('{');
+        for (Map.Entry<String, Object> claim : claims.entrySet()) {
+            String name = claim.getKey();
+            if (claim.getValue() == null || "sub".equals(name) || "iat".equals(name) || "exp".equals(name)) {
+                continue;
+            }
+            appendString(json, name);
+            json.append(':');
+            appendValue(json, claim.getValue());
+            json.append(',');
+        }
+        json.append("\"sub\":");
+        appendString(json, subject);
+        json.append(",\"iat\":").append(issuedAtMillis / 1000)
+                .append(",\"exp\":").append(expirationMillis / 1000)
+                .append('}');
+        return header + BASE64_URL.encodeToString(json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendValue(StringBuilder json, Object value) {
+        if (value instanceof String string) {
+            appendString(json, string);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof Collection<?> collection) {
+            json.append('[');
+            boolean first = true;
+            for (Object element : collection) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                if (element == null) {
+                    json.append("null");
+                } else {
+                    appendValue(json, element);
+                }
+            }
+            json.append(']');
+        } else {
+            try {
+                json.append(FALLBACK_MAPPER.writeValueAsString(value));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Unable to serialize claim value " + value, e);
+            }
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    private Signature rsaSigner(PrivateKey privateKey) throws GeneralSecurityException {
+        KeyedSigner<Signature> signer = rsaSigners.get();
+        if (signer == null || signer.key != privateKey) {
+            Signature signature = signer != null ? signer.engine : Signature.getInstance("SHA256withRSA");
+            signature.initSign(privateKey);
+            signer = new KeyedSigner<>(privateKey, signature);
+            rsaSigners.set(signer);
+        }
+        return signer.engine;
+    }
+
+    private Mac hmacSigner(Key key) throws GeneralSecurityException {
+        KeyedSigner<Mac> signer = hmacSigners.get();
+        if (signer == null || signer.key != key) {
+            Mac mac = signer != null ? signer.engine : Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            signer = new KeyedSigner<>(key, mac);
+            hmacSigners.set(signer);
+        }
+        return signer.engine;
+    }
+
+    /**
+     * A thread's signing engine together with the key it was initialized with.
+     */
+    private record KeyedSigner<T>(Key key, T engine) {
+    }
+}
@@ -1,10 +1,12 @@
 package com.aditya2254.ecommerceapp.userservice.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -48,6 +50,27 @@ public class JwtUtils {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    /**
+     * HMAC key derived from the secret once at startup.
+     */
+    private Key signingKey;
+
+    /**
+     * Thread-safe parser bound to the signing key, shared by all callers.
+     */
+    private JwtParser jwtParser;
+
+    /**
+     * Builds the signing key and the shared parser once the secret has been injected.
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     /**
      * Extracts the username (subject) from a JWT token.
      * 
@@ -160,22 +183,18 @@ public class JwtUtils {
      * @return all claims contained in the token
      */
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
+        return jwtParser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     /**
      * Gets the signing key used to verify JWT signatures.
-     * The key is derived from the base64-encoded secret key.
+     * The key is derived from the base64-encoded secret key once, in {@link #init()}.
      * 
      * @return the signing key
      */
     private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 }
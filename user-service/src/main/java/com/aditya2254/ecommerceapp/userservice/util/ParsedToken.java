@@ -0,0 +1,169 @@
+package com.aditya2254.ecommerceapp.userservice.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A JWT whose signature has already been verified.
+ *
+ * Instances are produced by JwtService#parseToken, which parses and verifies a token
+ * exactly once. Everything a request needs from the token (subject, expiry, custom
+ * claims) is then read from the parsed claims instead of parsing the token again.
+ *
+ * Instances are immutable and safe to keep for the rest of the request, for example
+ * as a request attribute.
+ */
+public final class ParsedToken {
+
+    /**
+     * Claim holding the user's database id.
+     */
+    public static final String CLAIM_USER_ID = "userId";
+
+    /**
+     * Claim holding the user's email address.
+     */
+    public static final String CLAIM_EMAIL = "email";
+
+    /**
+     * Claim holding the user's role names.
+     */
+    public static final String CLAIM_ROLES = "roles";
+
+    /**
+     * Claim holding the id of the refresh token family (login session) the token belongs to.
+     */
+    public static final String CLAIM_FAMILY = "fam";
+
+    /**
+     * Claim marking the kind of token; refresh tokens carry {@link #TOKEN_TYPE_REFRESH}.
+     */
+    public static final String CLAIM_TOKEN_TYPE = "token_type";
+
+    /**
+     * Value of the token type claim for refresh tokens.
+     */
+    public static final String TOKEN_TYPE_REFRESH = "refresh";
+
+    /**
+     * The raw compact token the claims were parsed from.
+     */
+    private final String token;
+
+    /**
+     * The verified claims of the token.
+     */
+    private final Claims claims;
+
+    public ParsedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+    }
+
+    /**
+     * @return the raw compact token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return all verified claims of the token
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return the subject of the token, which is the username
+     */
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    /**
+     * @return the expiration date of the token
+     */
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    /**
+     * Checks whether the token has expired.
+     *
+     * @return true if the expiration date is in the past
+     */
+    public boolean isExpired() {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    /**
+     * @return the user id claim, or null if the token does not carry it
+     */
+    public Long getUserId() {
+        return claims.get(CLAIM_USER_ID, Long.class);
+    }
+
+    /**
+     * @return the email claim, or null if the token does not carry it
+     */
+    public String getEmail() {
+        return claims.get(CLAIM_EMAIL, String.class);
+    }
+
+    /**
+     * @return the role names claim, or null if the token does not carry it
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> getRoles() {
+        return claims.get(CLAIM_ROLES, List.class);
+    }
+
+    /**
+     * @return the token id ("jti" claim), or null if the token does not carry it
+     */
+    public String getTokenId() {
+        return claims.getId();
+    }
+
+    /**
+     * @return the refresh token family id, or null if the token does not carry it
+     */
+    public String getFamilyId() {
+        return claims.get(CLAIM_FAMILY, String.class);
+    }
+
+    /**
+     * @return true if this is a refresh token rather than an access token
+     */
+    public boolean isRefreshToken() {
+        return TOKEN_TYPE_REFRESH.equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+
+    /**
+     * Checks whether the token carries every claim needed to describe the user
+     * (id, username, email and roles) without reading the database.
+     *
+     * Tokens issued before these claims were added, and refresh tokens, do not.
+     *
+     * @return true if the profile can be built from the claims alone
+     */
+    public boolean hasProfileClaims() {
+        return getUserId() != null && getUsername() != null && getEmail() != null && getRoles() != null;
+    }
+
+    /**
+     * Reads a single claim with the requested type.
+     *
+     * @param name the claim name
+     * @param type the expected type of the claim value
+     * @return the claim value, or null if the claim is absent
+     * @param <T> the type of the claim value
+     */
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+}